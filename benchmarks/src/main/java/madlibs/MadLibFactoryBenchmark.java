@@ -0,0 +1,98 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MadLibFactoryBenchmark class measures generating, filling and printing
+ * whole Mad Libs for each theme, sentence count and blank frequency.
+ * Printing goes to a discarding stream, so it measures formatting and
+ * System.out overhead rather than the terminal; the render benchmarks
+ * measure formatting alone.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class MadLibFactoryBenchmark {
+    @Param({"space", "western", "pirate", "all"})
+    public String theme;
+
+    @Param({"1", "5", "25"})
+    public int sentenceCount;
+
+    @Param({"0.1", "0.25", "0.5"})
+    public double blankFrequency;
+
+    private MadLibFactory madLibFactory;
+    private MadLib madLib;
+    private List<String> responses;
+    private PrintStream originalOut;
+    private final MadLibRenderer wrappedRenderer = new MadLibRenderer(MadLibRenderer.Format.BOX, 40);
+    private final MadLibRenderer jsonRenderer = new MadLibRenderer(MadLibRenderer.Format.JSON, 0);
+
+    /**
+     * Creates the factory and a Mad Lib with responses for every blank.
+     */
+    @Setup
+    public void setUp() {
+        madLibFactory = new MadLibFactory(new MadLibSpec(theme, sentenceCount, blankFrequency, false, 42));
+        madLib = madLibFactory.generateMadLib();
+        responses = new ArrayList<>();
+        for (String wordType : madLib.getWordTypes()) {
+            responses.add(wordType.toUpperCase());
+        }
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Restores the console stream replaced during setup.
+     */
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public MadLib generateMadLib() {
+        return madLibFactory.generateMadLib();
+    }
+
+    @Benchmark
+    public MadLib fillBlanks() {
+        return madLibFactory.fillBlanks(madLib, responses);
+    }
+
+    @Benchmark
+    public void printMadLib() {
+        madLibFactory.printMadLib(madLib);
+    }
+
+    @Benchmark
+    public String renderWrapped() {
+        return wrappedRenderer.render(madLib);
+    }
+
+    @Benchmark
+    public String renderJson() {
+        return jsonRenderer.render(madLib);
+    }
+}
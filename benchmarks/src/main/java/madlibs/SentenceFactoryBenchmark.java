@@ -0,0 +1,61 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SentenceFactoryBenchmark class measures building single sentences
+ * for each theme and blank frequency.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class SentenceFactoryBenchmark {
+    @Param({"space", "western", "pirate", "all"})
+    public String theme;
+
+    @Param({"0.1", "0.25", "0.5"})
+    public double blankFrequency;
+
+    private SentenceFactory sentenceFactory;
+    private WordBank wordBank;
+    private SplittableRandom random;
+    private final List<BlankSpan> blanks = new ArrayList<>();
+
+    /**
+     * Creates the sentence factory and resolves the word bank for the theme.
+     */
+    @Setup
+    public void setUp() {
+        sentenceFactory = new SentenceFactory(theme, blankFrequency);
+        wordBank = WordBankRegistry.getBank(theme);
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public String buildSentence() {
+        return sentenceFactory.buildSentence(wordBank, random);
+    }
+
+    @Benchmark
+    public String buildSentenceWithBlanks() {
+        blanks.clear();
+        return sentenceFactory.buildSentence(wordBank, random, null, 0, blanks);
+    }
+}
@@ -0,0 +1,333 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ServerLoadTest class drives a MadLibServer with concurrent keep-alive clients
+ * and reports throughput and latency percentiles. Without --url it starts a
+ * server in-process on a free localhost port and tests that.
+ * Each client is a virtual thread with its own connection, sending requests
+ * back to back and alternating between generating a Mad Lib with a new seed
+ * and filling the one it just got. Clients speak minimal HTTP/1.1 over a
+ * socket, so the harness costs far less per request than the server.
+ */
+public final class ServerLoadTest {
+    private static final String USAGE = """
+            Usage: ServerLoadTest [options]
+              --url <base>            Server to test, e.g. http://localhost:8080 (default: in-process server)
+              --clients <n>           Concurrent clients (default: 64)
+              --duration <seconds>    Measured time (default: 10)
+              --warmup <seconds>      Unmeasured time before measuring (default: 3)
+              --theme <name>          Theme of the generated Mad Libs (default: pirate)
+              --sentences <n>         Sentences per Mad Lib (default: 5)
+              --pause-ms <n>          Pause after each generate and fill pair, to model bursty
+                                      rather than saturating load (default: 0)
+              --unseeded              Generate without seeds, so the server can answer from its pool
+            """;
+    private static final String FILL_PATH = "/fill?id=";
+    private static final String FILL_RESPONSES = "&response=kraken&response=sail&response=salty";
+
+    private ServerLoadTest() {
+    }
+
+    /**
+     * Runs the load test.
+     * @param args Command-line flags, see USAGE.
+     */
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int clients = 64;
+        int duration = 10;
+        int warmup = 3;
+        String theme = "pirate";
+        int sentences = 5;
+        boolean seeded = true;
+        int pauseMillis = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> url = args[++i];
+                case "--clients" -> clients = Integer.parseInt(args[++i]);
+                case "--duration" -> duration = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--theme" -> theme = args[++i];
+                case "--sentences" -> sentences = Integer.parseInt(args[++i]);
+                case "--unseeded" -> seeded = false;
+                case "--pause-ms" -> pauseMillis = Integer.parseInt(args[++i]);
+                default -> {
+                    System.out.print(USAGE);
+                    return;
+                }
+            }
+        }
+
+        MadLibServer server = null;
+        if (url == null) {
+            server = new MadLibServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            server.start();
+            url = "http://localhost:" + server.getPort();
+        }
+        try {
+            URI base = URI.create(url);
+            String generatePath = "/generate?theme=" + theme + "&sentences=" + sentences + (seeded ? "&seed=" : "");
+            System.out.printf("Load testing %s with %d clients%n", url, clients);
+            run(base, generatePath, clients, pauseMillis, warmup, null);
+            Result result = new Result(duration);
+            run(base, generatePath, clients, pauseMillis, duration, result);
+            result.print();
+            System.out.println("Server stats: " + new Connection(base).get("/stats"));
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    /**
+     * Runs the clients for a period of time.
+     * @param base Server URL.
+     * @param generatePath Path of the generate endpoint, ending in "seed=" if seeds are sent.
+     * @param clients Number of concurrent clients.
+     * @param pauseMillis Pause after each generate and fill pair.
+     * @param seconds How long to run.
+     * @param result Where latencies are recorded, or null to discard them.
+     */
+    private static void run(URI base, String generatePath, int clients, int pauseMillis, int seconds,
+                            Result result) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong seeds = new AtomicLong();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> runClient(base, generatePath, seeds, pauseMillis, deadline)));
+            }
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get();
+                if (result != null) {
+                    result.add(latencies);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends requests over one connection until the deadline, alternating generate and fill.
+     * The connection is reopened after an error.
+     * @param base Server URL.
+     * @param generatePath Path of the generate endpoint, ending in "seed=" if seeds are sent.
+     * @param seeds Source of unique seeds.
+     * @param pauseMillis Pause after each generate and fill pair.
+     * @param deadline System.nanoTime() at which to stop.
+     * @return Latency of every request in nanoseconds, with the error count in the last element.
+     */
+    private static long[] runClient(URI base, String generatePath, AtomicLong seeds, int pauseMillis,
+                                    long deadline) throws InterruptedException {
+        long[] latencies = new long[1024];
+        int count = 0;
+        long errors = 0;
+        String id = null;
+        Connection connection = null;
+        while (System.nanoTime() < deadline) {
+            String path = id != null ? FILL_PATH + id + FILL_RESPONSES :
+                    generatePath.endsWith("=") ? generatePath + seeds.incrementAndGet() : generatePath;
+            long start = System.nanoTime();
+            try {
+                if (connection == null) {
+                    connection = new Connection(base);
+                }
+                String body = connection.get(path);
+                id = id == null ? idOf(body) : null;
+                if (body == null) {
+                    errors++;
+                }
+            } catch (IOException e) {
+                errors++;
+                id = null;
+                connection = close(connection);
+            }
+            if (count == latencies.length - 1) {
+                latencies = Arrays.copyOf(latencies, latencies.length * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+            if (pauseMillis > 0 && id == null) {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(2 * pauseMillis + 1));
+            }
+        }
+        close(connection);
+        long[] result = Arrays.copyOf(latencies, count + 1);
+        result[count] = errors;
+        return result;
+    }
+
+    /**
+     * Closes a connection, ignoring errors.
+     * @param connection The connection, or null.
+     * @return Null, for clearing the caller's reference.
+     */
+    private static Connection close(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.socket.close();
+            } catch (IOException e) {
+                // Already broken.
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Extracts the id from a generate response.
+     * @param json The response body.
+     * @return The Mad Lib id, or null if there is none.
+     */
+    private static String idOf(String json) {
+        if (json == null) {
+            return null;
+        }
+        int start = json.indexOf("\"id\":\"");
+        if (start < 0) {
+            return null;
+        }
+        start += 6;
+        return json.substring(start, json.indexOf('"', start));
+    }
+
+    /**
+     * Result class collects latencies from every client and prints a summary.
+     */
+    private static final class Result {
+        private final int seconds;
+        private final List<long[]> clientLatencies = new ArrayList<>();
+        private long errors;
+
+        /**
+         * Constructor for Result class.
+         * @param seconds Length of the measured period.
+         */
+        private Result(int seconds) {
+            this.seconds = seconds;
+        }
+
+        /**
+         * Adds the latencies of one client.
+         * @param latencies Latencies in nanoseconds, with the error count in the last element.
+         */
+        private void add(long[] latencies) {
+            clientLatencies.add(Arrays.copyOf(latencies, latencies.length - 1));
+            errors += latencies[latencies.length - 1];
+        }
+
+        /**
+         * Prints throughput, errors and latency percentiles.
+         */
+        private void print() {
+            long[] all = clientLatencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("Requests: %d, errors: %d, throughput: %.0f req/s%n",
+                    all.length, errors, all.length / (double) seconds);
+            if (all.length > 0) {
+                System.out.printf("Latency ms: p50 %.3f, p90 %.3f, p99 %.3f, p99.9 %.3f, max %.3f%n",
+                        percentile(all, 0.5), percentile(all, 0.9), percentile(all, 0.99),
+                        percentile(all, 0.999), all[all.length - 1] / 1e6);
+            }
+        }
+
+        /**
+         * Returns a percentile of sorted latencies in milliseconds.
+         * @param sorted Latencies in nanoseconds, sorted ascending.
+         * @param fraction The percentile as a fraction.
+         * @return The latency in milliseconds.
+         */
+        private static double percentile(long[] sorted, double fraction) {
+            return sorted[(int) Math.min(sorted.length - 1, (long) (sorted.length * fraction))] / 1e6;
+        }
+    }
+
+    /**
+     * Connection class is a keep-alive HTTP/1.1 connection that sends GET requests
+     * and reads responses with a Content-Length body.
+     */
+    private static final class Connection {
+        private final Socket socket;
+        private final String host;
+        private final InputStream in;
+        private final OutputStream out;
+        private byte[] body = new byte[4096];
+
+        /**
+         * Constructor for Connection class.
+         * @param base Server URL.
+         */
+        private Connection(URI base) throws IOException {
+            socket = new Socket(base.getHost(), base.getPort() < 0 ? 80 : base.getPort());
+            socket.setTcpNoDelay(true);
+            host = base.getHost();
+            in = new BufferedInputStream(socket.getInputStream(), 1 << 14);
+            out = new BufferedOutputStream(socket.getOutputStream(), 1 << 12);
+        }
+
+        /**
+         * Sends a GET request and reads the response.
+         * @param path The request path and query.
+         * @return The response body, or null if the status was not 200.
+         */
+        private String get(String path) throws IOException {
+            out.write(("GET " + path + " HTTP/1.1\r\nHost: " + host + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            String statusLine = readLine();
+            int contentLength = -1;
+            for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+                if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    contentLength = Integer.parseInt(line.substring(15).trim());
+                }
+            }
+            if (contentLength < 0) {
+                throw new IOException("Response without Content-Length");
+            }
+            if (body.length < contentLength) {
+                body = new byte[contentLength];
+            }
+            if (in.readNBytes(body, 0, contentLength) < contentLength) {
+                throw new EOFException();
+            }
+            return statusLine.startsWith("HTTP/1.1 200") ?
+                    new String(body, 0, contentLength, StandardCharsets.UTF_8) : null;
+        }
+
+        /**
+         * Reads one CRLF-terminated header line.
+         * @return The line without its terminator.
+         */
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder(64);
+            for (int c = in.read(); c != '\n'; c = in.read()) {
+                if (c < 0) {
+                    throw new EOFException();
+                }
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+            }
+            return line.toString();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * WordBankBenchmark class measures single word draws from the shared word banks.
+ * The listWithSharedRandom benchmarks reproduce the original sampling path,
+ * a List lookup with one java.util.Random shared by every thread, as the
+ * baseline for the array and batch sampling paths.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WordBankBenchmark {
+
+    /**
+     * ThemeState class holds one themed word bank and a random stream per thread.
+     */
+    private static final int BATCH_SIZE = 64;
+    private static final Random SHARED_RANDOM = new Random(42);
+
+    @State(Scope.Thread)
+    public static class ThemeState {
+        @Param({"space", "western", "pirate"})
+        public String theme;
+
+        private WordBank wordBank;
+        private List<String> nouns;
+        private SplittableRandom random;
+        private final int[] types = new int[BATCH_SIZE];
+        private final int[] indices = new int[BATCH_SIZE];
+
+        /**
+         * Resolves the word bank for the theme.
+         */
+        @Setup
+        public void setUp() {
+            wordBank = WordBankRegistry.getBank(theme);
+            nouns = wordBank.getNouns();
+            random = new SplittableRandom(42);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                types[i] = i % WordBank.WORD_TYPES.size();
+            }
+        }
+    }
+
+    /**
+     * AnyState class holds the "all" word bank used for the *FromAny draws.
+     */
+    @State(Scope.Thread)
+    public static class AnyState {
+        private WordBank wordBank;
+
+        /**
+         * Resolves the "all" word bank.
+         */
+        @Setup
+        public void setUp() {
+            wordBank = WordBankRegistry.getBank("all");
+        }
+    }
+
+    @Benchmark
+    public String listWithSharedRandom(ThemeState state) {
+        return state.nouns.get(SHARED_RANDOM.nextInt(state.nouns.size()));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String listWithSharedRandomContended(ThemeState state) {
+        return state.nouns.get(SHARED_RANDOM.nextInt(state.nouns.size()));
+    }
+
+    @Benchmark
+    public String getRandomWord(ThemeState state) {
+        return state.wordBank.getRandomWord(WordBank.NOUN);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String getRandomWordContended(ThemeState state) {
+        return state.wordBank.getRandomWord(WordBank.NOUN);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void sampleIndices(ThemeState state, Blackhole blackhole) {
+        state.wordBank.sampleIndices(state.types, state.random, state.indices);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            blackhole.consume(state.wordBank.getWord(state.types[i], state.indices[i]));
+        }
+    }
+
+    @Benchmark
+    public String getRandomElement(ThemeState state) {
+        return state.wordBank.getRandomElement(state.nouns);
+    }
+
+    @Benchmark
+    public String getRandomWordSeeded(ThemeState state) {
+        return state.wordBank.getRandomWord(WordBank.NOUN, state.random);
+    }
+
+    @Benchmark
+    public String getRandomNounFromAny(AnyState state) {
+        return state.wordBank.getRandomNounFromAny();
+    }
+
+    @Benchmark
+    public String getRandomVerbFromAny(AnyState state) {
+        return state.wordBank.getRandomVerbFromAny();
+    }
+
+    @Benchmark
+    public String getRandomAdjectiveFromAny(AnyState state) {
+        return state.wordBank.getRandomAdjectiveFromAny();
+    }
+
+    @Benchmark
+    public String getRandomAdverbFromAny(AnyState state) {
+        return state.wordBank.getRandomAdverbFromAny();
+    }
+}
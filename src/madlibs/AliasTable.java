@@ -0,0 +1,89 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * AliasTable class samples indices in proportion to their weights in constant time.
+ * The table is built once with Vose's alias method; each draw then costs one
+ * bounded integer and one double, however many entries the table holds.
+ */
+public final class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * Constructor for AliasTable class.
+     * Builds the probability and alias columns for the given weights.
+     * @param weights Non-negative weight of each index; at least one must be positive.
+     */
+    protected AliasTable(double[] weights) {
+        int size = weights.length;
+        if (size == 0) {
+            throw new IllegalArgumentException("Alias table needs at least one weight");
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+
+        probability = new double[size];
+        alias = new int[size];
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = weights[i] * size / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+    }
+
+    /**
+     * Draws a random index in proportion to its weight.
+     * @param random The random generator used for the draw.
+     * @return Sampled index.
+     */
+    protected int sample(RandomGenerator random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * Returns the number of indices the table samples from.
+     * @return Table size.
+     */
+    protected int size() {
+        return probability.length;
+    }
+}
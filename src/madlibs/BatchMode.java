@@ -0,0 +1,346 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * BatchMode class runs the Mad Libs generator without prompts or delays.
+ * Everything is driven by command-line flags, and the generated Mad Libs are
+ * written straight to standard output or a file, so the tool can run in pipelines.
+ */
+public final class BatchMode {
+    private static final String USAGE = """
+            Usage: MainLoop [options]
+              --theme <name>                       Theme of the Mad Libs: space, western, pirate, all,
+                                                   or a theme from --words (default: all)
+              --sentences <n>                      Sentences per Mad Lib (default: 5)
+              --blanks <few|some|many|0.0-1.0>     Blank space frequency (default: some)
+              --blank-count <n>                    Exact number of blank spaces per Mad Lib, spread
+                                                   evenly across word types (overrides --blanks)
+              --count <n>                          Number of Mad Libs (default: 1)
+              --seed <n>                           Seed for reproducible output (default: random)
+              --responses <file>                   Words to fill the blanks with, one per line
+              --auto-fill                          Fill remaining blanks with words from the word banks
+              --output <file>                      File to write to (default: standard output)
+              --format <plain|box|json|html>       Output format (default: box)
+              --width <n>                          Characters per line, wrapping at word boundaries
+                                                   (default: fit the longest sentence, or 72 with --stream)
+              --stream                             Write sentences as they are generated, so any
+                                                   number of sentences fits in memory
+              --words <dir>                        Directory of extra theme word bank files
+              --templates <dir|file.tbin>          Template files or compiled catalog to use instead
+                                                   of the built-in templates
+              --memory-report                      Print the memory used by the word banks to
+                                                   standard error when done
+              --help                               Show this message
+            """;
+    private static final int BATCH_PER_CORE = 4;
+
+    private String theme = "all";
+    private int sentenceCount = 5;
+    private double blankFrequency = 0.25;
+    private int blankCount = MadLibSpec.NO_BLANK_COUNT;
+    private int count = 1;
+    private long seed = new SplittableRandom().nextLong();
+    private Path responsesFile;
+    private boolean autoFill;
+    private boolean stream;
+    private MadLibRenderer.Format format = MadLibRenderer.Format.BOX;
+    private int width;
+    private Path outputFile;
+    private Path wordsDirectory;
+    private Path templatesSource;
+    private boolean memoryReport;
+
+    private BatchMode() {
+    }
+
+    /**
+     * Runs batch mode with the given command-line arguments.
+     * @param args Command-line flags, see USAGE.
+     * @return Process exit status: 0 on success, 1 on I/O errors, 2 on invalid arguments.
+     */
+    protected static int run(String[] args) {
+        BatchMode batchMode = new BatchMode();
+        try {
+            if (!batchMode.parse(args)) {
+                System.out.print(USAGE);
+                return 0;
+            }
+            if (batchMode.templatesSource != null) {
+                TemplateRegistry.useSource(batchMode.templatesSource, false);
+            }
+            batchMode.generate();
+            if (MadLibMetrics.ENABLED) {
+                System.err.print(MadLibMetrics.getInstance().getSnapshot());
+            }
+            if (batchMode.memoryReport) {
+                WordBankRegistry.printMemoryReport(System.err);
+            }
+            return 0;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            return 2;
+        } catch (IOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Parses the command-line flags into the batch settings.
+     * @param args Command-line flags.
+     * @return False if help was requested, true otherwise.
+     */
+    private boolean parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String flag = args[i];
+            switch (flag) {
+                case "--help", "-h" -> {
+                    return false;
+                }
+                case "--auto-fill" -> autoFill = true;
+                case "--stream" -> stream = true;
+                case "--memory-report" -> memoryReport = true;
+                case "--theme" -> theme = valueOf(args, ++i, flag).toLowerCase();
+                case "--sentences" -> sentenceCount = parsePositive(valueOf(args, ++i, flag), flag);
+                case "--blanks" -> blankFrequency = parseBlankFrequency(valueOf(args, ++i, flag));
+                case "--blank-count" -> blankCount = parseBlankCount(valueOf(args, ++i, flag), flag);
+                case "--count" -> count = parsePositive(valueOf(args, ++i, flag), flag);
+                case "--seed" -> seed = parseSeed(valueOf(args, ++i, flag));
+                case "--responses" -> responsesFile = Path.of(valueOf(args, ++i, flag));
+                case "--format" -> format = parseFormat(valueOf(args, ++i, flag));
+                case "--width" -> width = parsePositive(valueOf(args, ++i, flag), flag);
+                case "--output" -> outputFile = Path.of(valueOf(args, ++i, flag));
+                case "--words" -> wordsDirectory = Path.of(valueOf(args, ++i, flag));
+                case "--templates" -> templatesSource = Path.of(valueOf(args, ++i, flag));
+                default -> throw new IllegalArgumentException("Unknown option: " + flag);
+            }
+        }
+        if (wordsDirectory != null) {
+            WordBankRegistry.useCatalog(wordsDirectory, WordBankRegistry.DEFAULT_CACHE_SIZE);
+        }
+        if (!WordBankRegistry.hasTheme(theme)) {
+            throw new IllegalArgumentException("Theme not found: " + theme);
+        }
+        return true;
+    }
+
+    /**
+     * Generates, fills and writes the Mad Libs.
+     * Responses from the responses file are used in order across all Mad Libs.
+     */
+    private void generate() throws IOException {
+        try (Stream<String> responseLines = responsesFile == null ? Stream.empty() :
+                readResponses(responsesFile)) {
+            Iterator<String> responseIterator = responseLines.iterator();
+            MadLibFactory madLibFactory = new MadLibFactory(
+                    new MadLibSpec(theme, sentenceCount, blankFrequency, blankCount, false, seed));
+            OutputStream out = outputFile == null ? System.out : Files.newOutputStream(outputFile);
+            try {
+                MadLibWriter writer = new MadLibWriter(out, new MadLibRenderer(format, width));
+                if (stream) {
+                    streamMadLibs(madLibFactory, responseIterator, writer);
+                } else {
+                    writeMadLibs(madLibFactory, responseIterator, writer);
+                }
+                writer.flush();
+            } finally {
+                if (outputFile == null) {
+                    out.flush();
+                } else {
+                    out.close();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Generates the Mad Libs in parallel, then fills and writes them in order.
+     * They are generated a few per core at a time, so only one batch is held in
+     * memory however large --count is. The Mad Libs get the same seeds as in
+     * streamMadLibs().
+     * @param madLibFactory The factory generating the Mad Libs.
+     * @param responses Words to fill the blanks with.
+     * @param writer The writer to write to.
+     */
+    private void writeMadLibs(MadLibFactory madLibFactory, Iterator<String> responses,
+                              MadLibWriter writer) throws IOException {
+        SplittableRandom madLibSeeds = new SplittableRandom(seed);
+        int batchSize = Runtime.getRuntime().availableProcessors() * BATCH_PER_CORE;
+        for (int written = 0; written < count; ) {
+            long[] seeds = new long[Math.min(batchSize, count - written)];
+            for (int i = 0; i < seeds.length; i++) {
+                seeds[i] = madLibSeeds.nextLong();
+            }
+            for (MadLib madLib : madLibFactory.generateMadLibs(seeds)) {
+                writeMadLib(madLibFactory, madLib, responses, writer);
+            }
+            written += seeds.length;
+        }
+    }
+
+    /**
+     * Fills a Mad Lib with the next responses and writes it.
+     * @param madLibFactory The factory that generated the Mad Lib.
+     * @param madLib The Mad Lib to fill.
+     * @param responses Words to fill the blanks with.
+     * @param writer The writer to write to.
+     */
+    private void writeMadLib(MadLibFactory madLibFactory, MadLib madLib, Iterator<String> responses,
+                             MadLibWriter writer) throws IOException {
+        int blankCount = madLib.getResponseCount();
+        List<String> madLibResponses = new ArrayList<>(blankCount);
+        while (madLibResponses.size() < blankCount && responses.hasNext()) {
+            madLibResponses.add(responses.next());
+        }
+        if (autoFill && madLibResponses.size() < blankCount) {
+            List<String> words = madLibFactory.autoFillResponses(madLib);
+            madLibResponses.addAll(words.subList(madLibResponses.size(), blankCount));
+        }
+        MadLib result = madLibResponses.isEmpty() ? madLib :
+                madLibFactory.fillBlanks(madLib, madLibResponses);
+        writer.writeMadLib(result);
+    }
+
+    /**
+     * Generates, fills and writes the Mad Libs one sentence at a time, so no
+     * Mad Lib is ever held in memory. The Mad Libs get the same seeds as in
+     * writeMadLibs().
+     * @param madLibFactory The factory generating the Mad Libs.
+     * @param responses Words to fill the blanks with.
+     * @param writer The writer to write to.
+     */
+    private void streamMadLibs(MadLibFactory madLibFactory, Iterator<String> responses,
+                               MadLibWriter writer) throws IOException {
+        SplittableRandom madLibSeeds = new SplittableRandom(seed);
+        for (int i = 0; i < count; i++) {
+            madLibFactory.streamMadLib(madLibSeeds.nextLong(), writer, responses, autoFill);
+        }
+    }
+
+    /**
+     * Reads response words from a file, one per line, skipping blank lines.
+     * Lines are read lazily, so the stream must be closed.
+     * @param file The responses file.
+     * @return The response words, in file order.
+     */
+    private static Stream<String> readResponses(Path file) throws IOException {
+        return Files.lines(file, StandardCharsets.UTF_8)
+                .map(String::trim)
+                .filter(response -> !response.isEmpty());
+    }
+
+    /**
+     * Returns the value following a flag.
+     * @param args Command-line flags.
+     * @param index Index of the value.
+     * @param flag The flag the value belongs to.
+     * @return The flag's value.
+     */
+    private static String valueOf(String[] args, int index, String flag) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + flag);
+        }
+        return args[index];
+    }
+
+    /**
+     * Parses a blank frequency given by name, as in the interactive menu, or as a number.
+     * @param value The frequency given on the command line.
+     * @return The blank frequency between 0 and 1.
+     */
+    protected static double parseBlankFrequency(String value) {
+        switch (value.toLowerCase()) {
+            case "few" -> {
+                return 0.1;
+            }
+            case "some" -> {
+                return 0.25;
+            }
+            case "many" -> {
+                return 0.5;
+            }
+            default -> {
+                try {
+                    double frequency = Double.parseDouble(value);
+                    if (frequency >= 0 && frequency <= 1) {
+                        return frequency;
+                    }
+                } catch (NumberFormatException e) {
+                    // Reported below.
+                }
+                throw new IllegalArgumentException("Blank frequency must be few, some, many " +
+                        "or a number between 0 and 1: " + value);
+            }
+        }
+    }
+
+    /**
+     * Parses an output format name.
+     * @param value The format given on the command line.
+     * @return The output format.
+     */
+    private static MadLibRenderer.Format parseFormat(String value) {
+        try {
+            return MadLibRenderer.Format.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("--format must be plain, box, json or html: " + value);
+        }
+    }
+
+    /**
+     * Parses an exact blank count, which may be 0.
+     * @param value The number given on the command line.
+     * @param flag The flag the number belongs to.
+     * @return The parsed blank count.
+     */
+    protected static int parseBlankCount(String value, String flag) {
+        return value.equals("0") ? 0 : parsePositive(value, flag);
+    }
+
+    /**
+     * Parses a positive integer.
+     * @param value The number given on the command line.
+     * @param flag The flag the number belongs to.
+     * @return The parsed number.
+     */
+    protected static int parsePositive(String value, String flag) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number >= 1) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException(flag + " must be a positive integer: " + value);
+    }
+
+    /**
+     * Parses a seed.
+     * @param value The seed given on the command line.
+     * @return The parsed seed.
+     */
+    private static long parseSeed(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--seed must be an integer: " + value);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.BitSet;
+import java.util.random.RandomGenerator;
+
+/**
+ * BlankPlan class decides which slots of a whole Mad Lib are blank, so the
+ * Mad Lib gets exactly the requested number of blanks instead of a number
+ * that varies with every slot's coin flip.
+ * <p>
+ * The blanks are spread as evenly as possible across slot types: each type
+ * gets an equal share, and types with too few slots pass the rest on to the
+ * others. Within a type, the blank slots are picked by selection sampling as
+ * the sentences are built: each slot is blank with a chance of the type's
+ * blanks left over its slots left, which always ends with exactly the type's
+ * share and picks every combination of slots equally often. The plan only
+ * needs the number of slots of each type up front and keeps two counters per
+ * type, so its memory does not grow with the Mad Lib. Slots repeating an
+ * earlier slot are never planned; they follow the slot they repeat.
+ * <p>
+ * A plan is used up as it goes, so the sentences of a Mad Lib must be planned
+ * one after another, in order, from one thread. Each sentence's blank slots
+ * are written into one set that the plan reuses for the next sentence.
+ */
+public final class BlankPlan {
+    private final long[] slotsLeft;
+    private final long[] blanksLeft;
+    private final RandomGenerator random;
+    private final int blankCount;
+    private final BitSet sentenceBlanks = new BitSet();
+
+    /**
+     * Constructor for BlankPlan class.
+     * @param slotsLeft The number of slots of each type.
+     * @param blanksLeft The number of blanks of each type.
+     * @param random The random stream the blank slots are drawn from.
+     * @param blankCount The number of blank slots.
+     */
+    private BlankPlan(long[] slotsLeft, long[] blanksLeft, RandomGenerator random, int blankCount) {
+        this.slotsLeft = slotsLeft;
+        this.blanksLeft = blanksLeft;
+        this.random = random;
+        this.blankCount = blankCount;
+    }
+
+    /**
+     * Adds the slots of a template to a count of slots by type. Slots
+     * repeating an earlier slot are not counted.
+     * @param template The template of a sentence.
+     * @param slotsByType The number of slots of each type, indexed by slot type id.
+     */
+    protected static void countSlots(CompiledTemplate template, long[] slotsByType) {
+        for (int slot = 0; slot < template.getSlotCount(); slot++) {
+            if (template.getReference(slot) < 0) {
+                slotsByType[template.getSlotType(slot).getId()]++;
+            }
+        }
+    }
+
+    /**
+     * Plans the blanks of a Mad Lib. If the Mad Lib has fewer slots than
+     * requested, every slot is blank.
+     * @param slotsByType The number of slots of each type in the Mad Lib, as counted by countSlots().
+     * @param blankCount The number of blanks wanted.
+     * @param random The random stream the plan is drawn from.
+     * @return The blank plan.
+     */
+    protected static BlankPlan of(long[] slotsByType, int blankCount, RandomGenerator random) {
+        if (blankCount < 0) {
+            throw new IllegalArgumentException("Blank count must not be negative: " + blankCount);
+        }
+        long[] quotas = spread(slotsByType, blankCount, random);
+        long planned = 0;
+        for (long quota : quotas) {
+            planned += quota;
+        }
+        return new BlankPlan(slotsByType.clone(), quotas, random, (int) planned);
+    }
+
+    /**
+     * Plans the blanks of the next sentence of the Mad Lib.
+     * @param template The template of the sentence.
+     * @return The indices of the sentence's blank slots, valid until the next
+     * sentence is planned.
+     */
+    protected BitSet nextSentence(CompiledTemplate template) {
+        BitSet blanks = sentenceBlanks;
+        blanks.clear();
+        for (int slot = 0; slot < template.getSlotCount(); slot++) {
+            if (template.getReference(slot) >= 0) {
+                continue;
+            }
+            int type = template.getSlotType(slot).getId();
+            if (blanksLeft[type] > 0 && random.nextLong(slotsLeft[type]) < blanksLeft[type]) {
+                blanks.set(slot);
+                blanksLeft[type]--;
+            }
+            slotsLeft[type]--;
+        }
+        return blanks;
+    }
+
+    /**
+     * Returns the number of planned blanks, not counting slots that repeat them.
+     * @return Blank count.
+     */
+    protected int getBlankCount() {
+        return blankCount;
+    }
+
+    /**
+     * Splits the blanks between slot types as evenly as their slot counts
+     * allow. Types are filled from the fewest slots up, each taking an equal
+     * share of what is left; ties are ordered from a random type, so no type
+     * is always the one getting the remainder.
+     * @param available The number of slots of each type.
+     * @param blankCount The number of blanks wanted.
+     * @param random The random stream the tie order is drawn from.
+     * @return The number of blanks of each type.
+     */
+    private static long[] spread(long[] available, int blankCount, RandomGenerator random) {
+        int types = available.length;
+        int[] order = new int[types];
+        int offset = random.nextInt(types);
+        int typesLeft = 0;
+        long total = 0;
+        for (int i = 0; i < types; i++) {
+            int type = (i + offset) % types;
+            int j = i;
+            while (j > 0 && available[order[j - 1]] > available[type]) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = type;
+            if (available[type] > 0) {
+                typesLeft++;
+                total += available[type];
+            }
+        }
+
+        long[] quotas = new long[types];
+        long remaining = Math.min(blankCount, total);
+        for (int type : order) {
+            if (available[type] > 0) {
+                quotas[type] = Math.min(available[type], remaining / typesLeft);
+                remaining -= quotas[type];
+                typesLeft--;
+            }
+        }
+        return quotas;
+    }
+}
@@ -0,0 +1,59 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+/**
+ * BlankSpan record marks one blank space in a generated Mad Lib.
+ * Spans are recorded while sentences are built, so blanks can be filled
+ * by offset without searching the text for placeholders.
+ * @param sentence Index of the sentence (line) holding the blank.
+ * @param offset Offset of the placeholder within the sentence.
+ * @param length Length of the placeholder, e.g. 6 for "[noun]".
+ * @param wordType The slot type name of the blank, e.g. "noun" or "plural noun".
+ * @param sameAs Index of an earlier blank in the same list whose response this
+ *               blank repeats, or -1 if the blank takes its own response.
+ * @param agreement The form the response is put in to agree with the sentence,
+ *                  e.g. THIRD_PERSON after "she"; BASE to use it as given.
+ * @param articleLength Length of the article in front of the placeholder with its
+ *                      space, as in 2 for "a ", which is chosen again for the
+ *                      response; 0 if the placeholder has no article.
+ */
+public record BlankSpan(int sentence, int offset, int length, String wordType, int sameAs,
+                        Inflector.Form agreement, int articleLength) {
+    /**
+     * Constructor for a blank that takes its own response as given.
+     * @param sentence Index of the sentence (line) holding the blank.
+     * @param offset Offset of the placeholder within the sentence.
+     * @param length Length of the placeholder.
+     * @param wordType The slot type name of the blank.
+     */
+    public BlankSpan(int sentence, int offset, int length, String wordType) {
+        this(sentence, offset, length, wordType, -1, Inflector.Form.BASE, 0);
+    }
+
+    /**
+     * Returns a copy of the span at another position, as when the text before it changes.
+     * @param newOffset Offset of the placeholder within the sentence.
+     * @param newSameAs Index of the blank the copy repeats, or -1.
+     * @return The moved span.
+     */
+    protected BlankSpan moveTo(int newOffset, int newSameAs) {
+        return new BlankSpan(sentence, newOffset, length, wordType, newSameAs, agreement, articleLength);
+    }
+
+    /**
+     * Returns the offset just past the placeholder.
+     * @return End offset within the sentence.
+     */
+    protected int end() {
+        return offset + length;
+    }
+
+    /**
+     * Checks whether the blank repeats the response of an earlier blank.
+     * @return True if the blank is a slot reference.
+     */
+    protected boolean isReference() {
+        return sameAs >= 0;
+    }
+}
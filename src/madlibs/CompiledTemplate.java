@@ -0,0 +1,319 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CompiledTemplate class is the precompiled form of a sentence template.
+ * The template is split once into literal segments and word slots, so a
+ * sentence can be rendered by appending literals and chosen words in order.
+ * Slot symbols are looked up in the SlotRegistry; a symbol followed by a slot
+ * number, as in "$2", is a reference that repeats the word of that earlier
+ * slot, which must be of the same slot type. A backslash escapes a slot
+ * symbol that should appear in the sentence as written.
+ * <p>
+ * Grammar that depends on the chosen word is also worked out once here: an
+ * "a" or "an" in front of a slot is taken out of the literal text and
+ * marked on the slot, so the article can be picked for the word drawn, and
+ * a verb slot after a singular subject ("she #", "the $ #") is marked to
+ * take the third-person form.
+ */
+public final class CompiledTemplate {
+    protected static final int NO_ARTICLE = 0;
+    protected static final int ARTICLE = 1;
+    protected static final int CAPITAL_ARTICLE = 2;
+
+    private static final char ESCAPE = '\\';
+    private static final int AVERAGE_WORD_LENGTH = 12;
+    private static final Set<String> SINGULAR_PRONOUNS = Set.of("he", "she", "it");
+    private static final Set<String> BASE_FORM_WORDS = Set.of(
+            "to", "do", "does", "did", "will", "would", "can", "could", "shall", "should", "may", "might", "must");
+
+    private final String source;
+    private final String[] literals;
+    private final SlotType[] slots;
+    private final int[] references;
+    private final byte[] articles;
+    private final Inflector.Form[] agreements;
+    private final int literalLength;
+
+    /**
+     * Constructor for CompiledTemplate class.
+     * @param source The template the compiled form was built from.
+     * @param literals The literal segments, one more than the number of slots.
+     * @param slots The slot type of each slot, in template order.
+     * @param references The slot each slot repeats, or -1; null if no slot is a reference.
+     * @param articles The article in front of each slot; null if no slot has one.
+     * @param agreements The form each slot's verb takes to agree with its subject; null if none does.
+     */
+    private CompiledTemplate(String source, String[] literals, SlotType[] slots, int[] references,
+                             byte[] articles, Inflector.Form[] agreements) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+        this.references = references;
+        this.articles = articles;
+        this.agreements = agreements;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles a sentence template into literal segments and word slots.
+     * A backslash in front of a slot symbol or another backslash keeps that
+     * character as literal text, so a template reading \$5 renders as "$5".
+     * @param template The template using slot symbols such as $ # @ % as word placeholders.
+     * @return The compiled template.
+     */
+    protected static CompiledTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        SlotType[] slots = new SlotType[template.length()];
+        int[] references = null;
+        int slotCount = 0;
+        StringBuilder text = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (c == ESCAPE && i + 1 < template.length() && isEscapable(template.charAt(i + 1))) {
+                text.append(template.charAt(i + 1));
+                i += 2;
+                continue;
+            }
+            SlotType slotType = SlotRegistry.bySymbol(c);
+            if (slotType == null) {
+                text.append(c);
+                i++;
+                continue;
+            }
+            literals.add(text.toString());
+            text.setLength(0);
+            i++;
+            int digitsStart = i;
+            while (i < template.length() && Character.isDigit(template.charAt(i))) {
+                i++;
+            }
+            if (i > digitsStart) {
+                int target = Integer.parseInt(template, digitsStart, i, 10) - 1;
+                if (target < 0 || target >= slotCount) {
+                    throw new IllegalArgumentException("Slot reference " + (target + 1) +
+                            " does not name an earlier slot in: " + template);
+                }
+                if (slots[target] != slotType) {
+                    throw new IllegalArgumentException("Slot " + (slotCount + 1) + " is a " + slotType +
+                            " but refers to a " + slots[target] + " in: " + template);
+                }
+                if (references == null) {
+                    references = new int[template.length()];
+                    Arrays.fill(references, -1);
+                }
+                references[slotCount] = target;
+            }
+            slots[slotCount++] = slotType;
+        }
+        literals.add(text.toString());
+        String[] literalArray = literals.toArray(new String[0]);
+        slots = Arrays.copyOf(slots, slotCount);
+
+        byte[] articles = null;
+        Inflector.Form[] agreements = null;
+        for (int slot = 0; slot < slotCount; slot++) {
+            String literal = literalArray[slot];
+            int articleLength = articleLength(literal, slot == 0);
+            if (articleLength > 0) {
+                if (articles == null) {
+                    articles = new byte[slotCount];
+                }
+                boolean capital = Character.isUpperCase(literal.charAt(literal.length() - articleLength));
+                articles[slot] = (byte) (capital ? CAPITAL_ARTICLE : ARTICLE);
+                literalArray[slot] = literal.substring(0, literal.length() - articleLength);
+            }
+            if (followsSingularSubject(literalArray, slots, slot)) {
+                if (agreements == null) {
+                    agreements = new Inflector.Form[slotCount];
+                    Arrays.fill(agreements, Inflector.Form.BASE);
+                }
+                agreements[slot] = Inflector.Form.THIRD_PERSON;
+            }
+        }
+        return new CompiledTemplate(template, literalArray, slots,
+                references == null ? null : Arrays.copyOf(references, slotCount), articles, agreements);
+    }
+
+    /**
+     * Returns the number of word slots in the template.
+     * @return Slot count.
+     */
+    protected int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the slot type of a slot.
+     * @param index The slot index.
+     * @return The slot type.
+     */
+    protected SlotType getSlotType(int index) {
+        return slots[index];
+    }
+
+    /**
+     * Checks whether any slot repeats the word of an earlier slot.
+     * @return True if the template has slot references.
+     */
+    protected boolean hasReferences() {
+        return references != null;
+    }
+
+    /**
+     * Returns the earlier slot a slot repeats the word of.
+     * @param index The slot index.
+     * @return Index of the referenced slot, or -1 if the slot draws its own word.
+     */
+    protected int getReference(int index) {
+        return references == null ? -1 : references[index];
+    }
+
+    /**
+     * Returns the indefinite article in front of a slot, which is chosen for the word drawn.
+     * @param index The slot index.
+     * @return NO_ARTICLE, ARTICLE, or CAPITAL_ARTICLE when the article starts the sentence.
+     */
+    protected int getArticle(int index) {
+        return articles == null ? NO_ARTICLE : articles[index];
+    }
+
+    /**
+     * Returns the form a slot's word takes to agree with the rest of the sentence.
+     * @param index The slot index.
+     * @return THIRD_PERSON for a verb after a singular subject, otherwise BASE.
+     */
+    protected Inflector.Form getAgreement(int index) {
+        return agreements == null ? Inflector.Form.BASE : agreements[index];
+    }
+
+    /**
+     * Returns a literal segment. Segment i comes before slot i,
+     * and the last segment follows the final slot.
+     * @param index The segment index.
+     * @return The literal text.
+     */
+    protected String getLiteral(int index) {
+        return literals[index];
+    }
+
+    /**
+     * Returns the length of the template text, used to index templates by length.
+     * @return Length of the source template.
+     */
+    protected int getLength() {
+        return source.length();
+    }
+
+    /**
+     * Estimates the rendered length of a sentence, used to pre-size its buffer.
+     * @return Estimated sentence length.
+     */
+    protected int estimateLength() {
+        return literalLength + slots.length * AVERAGE_WORD_LENGTH;
+    }
+
+    /**
+     * Returns the template the compiled form was built from.
+     * @return The source template.
+     */
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * Measures an indefinite article ending a literal segment, as in "It is a ".
+     * @param literal The literal segment in front of a slot.
+     * @param templateStart Whether the segment starts the template.
+     * @return Length of the article and the space after it, or 0 if there is none.
+     */
+    private static int articleLength(String literal, boolean templateStart) {
+        int end = literal.length();
+        if (end < 2 || literal.charAt(end - 1) != ' ') {
+            return 0;
+        }
+        int start = end - 1;
+        while (start > 0 && Character.isLetter(literal.charAt(start - 1))) {
+            start--;
+        }
+        String word = literal.substring(start, end - 1);
+        if (!word.equalsIgnoreCase("a") && !word.equalsIgnoreCase("an")) {
+            return 0;
+        }
+        if (start == 0 ? !templateStart : literal.charAt(start - 1) != ' ') {
+            return 0;
+        }
+        return end - start;
+    }
+
+    /**
+     * Checks whether a verb slot follows a singular subject, so its verb takes
+     * the third-person form: a he/she/it right before it, or a noun, name or
+     * place slot right before it that is not itself after "to", "did" or a
+     * modal verb ("so as to $ #").
+     * @param literals The literal segments, articles removed.
+     * @param slots The slot types.
+     * @param slot The slot index.
+     * @return True if the slot's verb takes the third-person form.
+     */
+    private static boolean followsSingularSubject(String[] literals, SlotType[] slots, int slot) {
+        SlotType slotType = slots[slot];
+        if (slotType.getKind() != SlotType.Kind.WORD || slotType.getWordType() != WordBank.VERB
+                || slotType.getForm() != Inflector.Form.BASE) {
+            return false;
+        }
+        String literal = literals[slot];
+        if (!literal.isEmpty() && !literal.endsWith(" ")) {
+            return false;
+        }
+        if (literal.isBlank()) {
+            if (slot == 0 || literal.isEmpty()) {
+                return false;
+            }
+            SlotType subject = slots[slot - 1];
+            int subjectType = subject.getWordType();
+            return subject.getKind() == SlotType.Kind.WORD && subject.getForm() == Inflector.Form.BASE
+                    && (subjectType == WordBank.NOUN || subjectType == WordBank.NAME || subjectType == WordBank.PLACE)
+                    && !BASE_FORM_WORDS.contains(lastWord(literals[slot - 1]));
+        }
+        return SINGULAR_PRONOUNS.contains(lastWord(literal));
+    }
+
+    /**
+     * Returns the last word of a literal segment, in lower case.
+     * @param literal The literal segment.
+     * @return The last word, or "" if the segment does not end in a word.
+     */
+    private static String lastWord(String literal) {
+        int end = literal.length();
+        while (end > 0 && literal.charAt(end - 1) == ' ') {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && Character.isLetter(literal.charAt(start - 1))) {
+            start--;
+        }
+        return literal.substring(start, end).toLowerCase();
+    }
+
+    /**
+     * Checks whether a character can follow the escape character.
+     * @param c The character after the backslash.
+     * @return True if c is a slot symbol or the escape character itself.
+     */
+    private static boolean isEscapable(char c) {
+        return c == ESCAPE || SlotRegistry.bySymbol(c) != null;
+    }
+}
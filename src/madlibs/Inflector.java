@@ -0,0 +1,373 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inflector class turns base words from the word banks into the forms
+ * sentences need: plural nouns, past-tense and third-person verbs, and the
+ * indefinite article ("a" or "an") in front of a word. Common irregular
+ * words are looked up; the rest follow the regular English spelling rules.
+ * Words of several parts inflect their last part when they are nouns
+ * ("black hole" to "black holes") and their first part when they are verbs
+ * ("wage-war" to "waged-war").
+ * <p>
+ * Frozen word banks compute every form once when they load (see WordStore),
+ * so these methods only run on the render path for mapped word bank files
+ * and player responses.
+ */
+public final class Inflector {
+    /**
+     * Word forms a slot can ask for.
+     */
+    protected enum Form {
+        /** The word as it is stored in the word bank. */
+        BASE(-1),
+        /** Plural of a noun. */
+        PLURAL(WordBank.NOUN),
+        /** Simple past tense of a verb. */
+        PAST(WordBank.VERB),
+        /** Third-person singular present tense of a verb, as in "she sails". */
+        THIRD_PERSON(WordBank.VERB);
+
+        private final int wordType;
+
+        /**
+         * Constructor for Form enum.
+         * @param wordType The word type the form is made from, or -1 for the base form.
+         */
+        Form(int wordType) {
+            this.wordType = wordType;
+        }
+
+        /**
+         * Returns the word type the form is made from, whose words get the form precomputed.
+         * @return The WordBank word type, or -1 for the base form.
+         */
+        protected int getWordType() {
+            return wordType;
+        }
+    }
+
+    private static final Map<String, String> IRREGULAR_PLURALS = Map.ofEntries(
+            Map.entry("man", "men"), Map.entry("woman", "women"), Map.entry("child", "children"),
+            Map.entry("person", "people"), Map.entry("foot", "feet"), Map.entry("tooth", "teeth"),
+            Map.entry("goose", "geese"), Map.entry("mouse", "mice"), Map.entry("ox", "oxen"),
+            Map.entry("cactus", "cacti"), Map.entry("nebula", "nebulae"), Map.entry("nova", "novae"),
+            Map.entry("supernova", "supernovae"), Map.entry("spectrum", "spectra"), Map.entry("vortex", "vortices"),
+            Map.entry("wolf", "wolves"), Map.entry("knife", "knives"), Map.entry("life", "lives"),
+            Map.entry("thief", "thieves"), Map.entry("half", "halves"), Map.entry("shelf", "shelves"),
+            Map.entry("leaf", "leaves"), Map.entry("hero", "heroes"), Map.entry("volcano", "volcanoes"),
+            Map.entry("torpedo", "torpedoes"), Map.entry("echo", "echoes"), Map.entry("potato", "potatoes"),
+            Map.entry("tomato", "tomatoes"), Map.entry("axis", "axes"), Map.entry("oasis", "oases"),
+            Map.entry("crisis", "crises"), Map.entry("basis", "bases"), Map.entry("thesis", "theses"),
+            Map.entry("analysis", "analyses"), Map.entry("hypothesis", "hypotheses"),
+            Map.entry("ellipsis", "ellipses"), Map.entry("nemesis", "nemeses"),
+            Map.entry("parenthesis", "parentheses"), Map.entry("diagnosis", "diagnoses"));
+    private static final Set<String> UNCOUNTABLE = Set.of(
+            "cattle", "sheep", "deer", "fish", "bison", "buffalo", "moose", "gold", "gunpowder", "rum",
+            "whiskey", "kerosene", "jerky", "booty", "loot", "plunder", "gravity", "radiation", "plasma",
+            "space", "dark matter", "pemmican", "sarsaparilla", "wampum", "quartz", "cosmos", "mesquite");
+    private static final Set<String> UNCHANGED_PLURALS = Set.of(
+            "species", "series", "gallows", "crossbones", "spurs", "chaps", "jewels", "scissors", "pants",
+            "goggles", "binoculars", "mars", "venus", "ceres", "ulysses", "iroquois");
+    private static final Map<String, String> IRREGULAR_PASTS = Map.ofEntries(
+            Map.entry("be", "was"), Map.entry("become", "became"), Map.entry("begin", "began"),
+            Map.entry("bite", "bit"), Map.entry("blow", "blew"), Map.entry("break", "broke"),
+            Map.entry("bring", "brought"), Map.entry("build", "built"), Map.entry("burst", "burst"),
+            Map.entry("buy", "bought"), Map.entry("catch", "caught"), Map.entry("choose", "chose"),
+            Map.entry("come", "came"), Map.entry("cut", "cut"), Map.entry("dig", "dug"),
+            Map.entry("do", "did"), Map.entry("draw", "drew"), Map.entry("drink", "drank"),
+            Map.entry("drive", "drove"), Map.entry("eat", "ate"), Map.entry("fall", "fell"),
+            Map.entry("feel", "felt"), Map.entry("fight", "fought"), Map.entry("find", "found"),
+            Map.entry("flee", "fled"), Map.entry("fly", "flew"), Map.entry("forget", "forgot"),
+            Map.entry("freeze", "froze"), Map.entry("get", "got"),
+            Map.entry("give", "gave"), Map.entry("go", "went"), Map.entry("grow", "grew"),
+            Map.entry("hang", "hung"), Map.entry("have", "had"), Map.entry("hear", "heard"),
+            Map.entry("hide", "hid"), Map.entry("hit", "hit"), Map.entry("hold", "held"),
+            Map.entry("keep", "kept"), Map.entry("kneel", "knelt"), Map.entry("know", "knew"),
+            Map.entry("lead", "led"), Map.entry("leave", "left"), Map.entry("let", "let"),
+            Map.entry("lose", "lost"), Map.entry("make", "made"), Map.entry("meet", "met"),
+            Map.entry("outrun", "outran"), Map.entry("overcome", "overcame"), Map.entry("overthrow", "overthrew"),
+            Map.entry("pay", "paid"), Map.entry("put", "put"), Map.entry("read", "read"),
+            Map.entry("ride", "rode"), Map.entry("ring", "rang"), Map.entry("rise", "rose"),
+            Map.entry("run", "ran"), Map.entry("say", "said"), Map.entry("see", "saw"),
+            Map.entry("seek", "sought"), Map.entry("sell", "sold"), Map.entry("send", "sent"),
+            Map.entry("set", "set"), Map.entry("shake", "shook"), Map.entry("shine", "shone"),
+            Map.entry("shoot", "shot"), Map.entry("sing", "sang"), Map.entry("sink", "sank"),
+            Map.entry("sit", "sat"), Map.entry("sleep", "slept"), Map.entry("speak", "spoke"),
+            Map.entry("spend", "spent"), Map.entry("spin", "spun"), Map.entry("stand", "stood"),
+            Map.entry("steal", "stole"), Map.entry("stick", "stuck"), Map.entry("strike", "struck"),
+            Map.entry("swear", "swore"), Map.entry("swim", "swam"), Map.entry("swing", "swung"),
+            Map.entry("take", "took"), Map.entry("teach", "taught"), Map.entry("tear", "tore"),
+            Map.entry("tell", "told"), Map.entry("think", "thought"), Map.entry("throw", "threw"),
+            Map.entry("undertake", "undertook"), Map.entry("wake", "woke"), Map.entry("wear", "wore"),
+            Map.entry("win", "won"), Map.entry("withdraw", "withdrew"), Map.entry("write", "wrote"),
+            Map.entry("cattle-drive", "cattle-drove"), Map.entry("quick-draw", "quick-drew"));
+    private static final Map<String, String> IRREGULAR_THIRD_PERSONS = Map.of(
+            "be", "is", "have", "has", "do", "does", "go", "goes",
+            "cattle-drive", "cattle-drives", "quick-draw", "quick-draws");
+    private static final String VOWEL_SOUND_LETTERS = "aefhilmnorsx";
+    private static final List<String> AN_PREFIXES = List.of("hour", "honest", "honor", "honour", "heir");
+    private static final List<String> A_PREFIXES = List.of(
+            "uni", "use", "usu", "uti", "uto", "ura", "ure", "uri", "uro", "eu", "ewe", "one", "once", "ufo");
+    private static final Set<String> DOUBLED_FINAL_CONSONANT = Set.of(
+            "kidnap", "patrol", "rebel", "control", "propel", "compel", "refer", "prefer", "occur",
+            "admit", "commit", "equip", "regret", "submit", "transmit", "permit", "expel");
+
+    private Inflector() {
+    }
+
+    /**
+     * Returns a form of a base word.
+     * @param word The base word.
+     * @param form The form to return.
+     * @return The word in that form.
+     */
+    protected static String inflect(String word, Form form) {
+        return switch (form) {
+            case BASE -> word;
+            case PLURAL -> plural(word);
+            case PAST -> pastTense(word);
+            case THIRD_PERSON -> thirdPerson(word);
+        };
+    }
+
+    /**
+     * Appends an indefinite article and the space after it.
+     * @param out The buffer to append to.
+     * @param an Whether the next word takes "an".
+     * @param capital Whether the article starts the sentence.
+     */
+    protected static void appendArticle(StringBuilder out, boolean an, boolean capital) {
+        out.append(capital ? (an ? "An " : "A ") : (an ? "an " : "a "));
+    }
+
+    /**
+     * Checks whether a word starts with a vowel sound and so takes "an".
+     * Words spelled with a silent h ("hour") take "an"; words starting with
+     * a "you" or "won" sound ("unicorn", "one") take "a". A letter on its own
+     * or before a hyphen is read by its name ("an x-ray"). Numbers take "an"
+     * when they are read starting with a vowel: 8, 11, 18 and 80 to 89.
+     * @param word The word.
+     * @return True if the word takes "an".
+     */
+    protected static boolean takesAn(CharSequence word) {
+        return takesAn(word, 0);
+    }
+
+    /**
+     * Checks whether the word starting at an offset of a text takes "an".
+     * Only the first few characters are read, so the check does not allocate.
+     * @param text The text holding the word.
+     * @param start Offset of the word within the text.
+     * @return True if the word takes "an".
+     */
+    protected static boolean takesAn(CharSequence text, int start) {
+        if (start >= text.length()) {
+            return false;
+        }
+        char first = Character.toLowerCase(text.charAt(start));
+        if (Character.isDigit(first)) {
+            int end = start + 1;
+            while (end < text.length() && Character.isDigit(text.charAt(end))) {
+                end++;
+            }
+            return first == '8' || (end - start == 2 && first == '1'
+                    && (text.charAt(start + 1) == '1' || text.charAt(start + 1) == '8'));
+        }
+        if (start + 1 == text.length() || text.charAt(start + 1) == '-') {
+            return VOWEL_SOUND_LETTERS.indexOf(first) >= 0;
+        }
+        for (String prefix : AN_PREFIXES) {
+            if (startsWithIgnoreCase(text, start, prefix)) {
+                return true;
+            }
+        }
+        if (!isVowel(first)) {
+            return false;
+        }
+        for (String prefix : A_PREFIXES) {
+            if (startsWithIgnoreCase(text, start, prefix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the plural of a noun. Uncountable nouns, names and nouns that
+     * are already plural ("spurs") are returned unchanged; they are listed,
+     * since a final -s alone does not tell "spurs" from "lens". Only the listed
+     * Greek nouns in -is take -es in its place ("oasis" to "oases").
+     * @param noun The noun.
+     * @return The plural noun.
+     */
+    protected static String plural(String noun) {
+        String lower = noun.toLowerCase();
+        if (UNCOUNTABLE.contains(lower) || UNCHANGED_PLURALS.contains(lower)) {
+            return noun;
+        }
+        String irregular = IRREGULAR_PLURALS.get(lower);
+        if (irregular != null) {
+            return irregular;
+        }
+        int split = Math.max(noun.lastIndexOf(' '), noun.lastIndexOf('-'));
+        if (split > 0) {
+            return noun.substring(0, split + 1) + plural(noun.substring(split + 1));
+        }
+        int length = noun.length();
+        if (length < 2) {
+            return noun + "s";
+        }
+        char last = lower.charAt(length - 1);
+        char beforeLast = lower.charAt(length - 2);
+        if (last == 's' || last == 'x' || last == 'z' || lower.endsWith("ch") || lower.endsWith("sh")) {
+            return noun + "es";
+        }
+        if (last == 'y' && !isVowel(beforeLast)) {
+            return noun.substring(0, length - 1) + "ies";
+        }
+        return noun + "s";
+    }
+
+    /**
+     * Returns the simple past tense of a verb.
+     * @param verb The verb.
+     * @return The past-tense verb.
+     */
+    protected static String pastTense(String verb) {
+        String lower = verb.toLowerCase();
+        String irregular = IRREGULAR_PASTS.get(lower);
+        if (irregular != null) {
+            return irregular;
+        }
+        int split = indexOfSeparator(verb);
+        if (split > 0) {
+            return pastTense(verb.substring(0, split)) + verb.substring(split);
+        }
+        int length = verb.length();
+        if (length < 2) {
+            return verb + "ed";
+        }
+        char last = lower.charAt(length - 1);
+        char beforeLast = lower.charAt(length - 2);
+        if (last == 'e') {
+            return verb + "d";
+        }
+        if (last == 'y' && !isVowel(beforeLast)) {
+            return verb.substring(0, length - 1) + "ied";
+        }
+        if (doublesFinalConsonant(lower)) {
+            return verb + last + "ed";
+        }
+        return verb + "ed";
+    }
+
+    /**
+     * Returns the third-person singular present tense of a verb, as in "he sails".
+     * @param verb The verb.
+     * @return The third-person verb.
+     */
+    protected static String thirdPerson(String verb) {
+        String lower = verb.toLowerCase();
+        String irregular = IRREGULAR_THIRD_PERSONS.get(lower);
+        if (irregular != null) {
+            return irregular;
+        }
+        int split = indexOfSeparator(verb);
+        if (split > 0) {
+            return thirdPerson(verb.substring(0, split)) + verb.substring(split);
+        }
+        int length = verb.length();
+        if (length < 2) {
+            return verb + "s";
+        }
+        char last = lower.charAt(length - 1);
+        char beforeLast = lower.charAt(length - 2);
+        if (last == 's' || last == 'x' || last == 'z' || lower.endsWith("ch") || lower.endsWith("sh")
+                || (last == 'o' && !isVowel(beforeLast))) {
+            return verb + "es";
+        }
+        if (last == 'y' && !isVowel(beforeLast)) {
+            return verb.substring(0, length - 1) + "ies";
+        }
+        return verb + "s";
+    }
+
+    /**
+     * Checks whether a verb doubles its final consonant before -ed, as in
+     * "rob" to "robbed": one-syllable words ending in a single vowel and a
+     * consonant other than w, x or y, and a few longer words stressed on the
+     * last syllable.
+     * @param verb The verb, in lower case.
+     * @return True if the final consonant is doubled.
+     */
+    private static boolean doublesFinalConsonant(String verb) {
+        if (DOUBLED_FINAL_CONSONANT.contains(verb)) {
+            return true;
+        }
+        int length = verb.length();
+        if (length < 3) {
+            return false;
+        }
+        char last = verb.charAt(length - 1);
+        if (isVowel(last) || last == 'w' || last == 'x' || last == 'y'
+                || !isVowel(verb.charAt(length - 2)) || isVowel(verb.charAt(length - 3))) {
+            return false;
+        }
+        int vowelGroups = 0;
+        for (int i = 0; i < length; i++) {
+            if (isVowel(verb.charAt(i)) && (i == 0 || !isVowel(verb.charAt(i - 1)))) {
+                vowelGroups++;
+            }
+        }
+        return vowelGroups == 1;
+    }
+
+    /**
+     * Finds the first space or hyphen of a word of several parts.
+     * @param word The word.
+     * @return Index of the separator, or -1 if the word has one part.
+     */
+    private static int indexOfSeparator(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c == ' ' || c == '-') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the text at an offset starts with a lower-case prefix, ignoring case.
+     * @param text The text.
+     * @param start Offset the prefix is compared at.
+     * @param prefix The prefix, in lower case.
+     * @return True if the text starts with the prefix there.
+     */
+    private static boolean startsWithIgnoreCase(CharSequence text, int start, String prefix) {
+        if (text.length() - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a lower-case letter is a vowel.
+     * @param c The letter.
+     * @return True for a, e, i, o and u.
+     */
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
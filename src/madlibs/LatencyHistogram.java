@@ -0,0 +1,167 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram class records durations into log-linear buckets, in the
+ * style of HdrHistogram: every power of two is split into 32 equal buckets,
+ * so any recorded value is reported within about 3% of its true value.
+ * Recording is lock-free and needs no allocation.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_SHIFT = 63 - SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((MAX_SHIFT + 2) * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Snapshot record holds the summary of a histogram at one moment.
+     * @param count Number of recorded values.
+     * @param mean Mean of the recorded values.
+     * @param p50 Median.
+     * @param p90 90th percentile.
+     * @param p99 99th percentile.
+     * @param p999 99.9th percentile.
+     * @param max Largest recorded value.
+     */
+    protected record Snapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+    }
+
+    /**
+     * Records a value.
+     * @param value The value, usually nanoseconds; negative values count as 0.
+     */
+    protected void record(long value) {
+        value = Math.max(value, 0);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        total.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     * @return The count.
+     */
+    protected long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the value below which a fraction of the recorded values fall.
+     * @param fraction The percentile as a fraction, between 0 and 1.
+     * @return The highest value of the bucket holding the percentile, or 0 if nothing was recorded.
+     */
+    protected long getPercentile(double fraction) {
+        long[] snapshot = copyCounts();
+        return percentileOf(snapshot, sumOf(snapshot), fraction);
+    }
+
+    /**
+     * Summarizes the histogram.
+     * @return The summary.
+     */
+    protected Snapshot snapshot() {
+        long[] snapshot = copyCounts();
+        long recorded = sumOf(snapshot);
+        long sum = total.sum();
+        return new Snapshot(recorded, recorded == 0 ? 0 : (double) sum / recorded,
+                percentileOf(snapshot, recorded, 0.5), percentileOf(snapshot, recorded, 0.9),
+                percentileOf(snapshot, recorded, 0.99), percentileOf(snapshot, recorded, 0.999), max.get());
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    protected void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Copies the bucket counts, so percentiles are computed from one consistent view.
+     * @return The bucket counts.
+     */
+    private long[] copyCounts() {
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Adds up bucket counts.
+     * @param snapshot Bucket counts.
+     * @return Their sum.
+     */
+    private static long sumOf(long[] snapshot) {
+        long sum = 0;
+        for (long bucketCount : snapshot) {
+            sum += bucketCount;
+        }
+        return sum;
+    }
+
+    /**
+     * Finds a percentile in a copy of the bucket counts.
+     * @param snapshot Bucket counts.
+     * @param recorded Sum of the bucket counts.
+     * @param fraction The percentile as a fraction.
+     * @return The highest value of the bucket holding the percentile.
+     */
+    private long percentileOf(long[] snapshot, long recorded, double fraction) {
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * recorded));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Returns the bucket of a value. Values below 64 get a bucket each; above
+     * that, the value is shifted right until it is below 64, and the bucket
+     * is given by the shift and the remaining six bits.
+     * @param value A non-negative value.
+     * @return The bucket index.
+     */
+    private static int bucketOf(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the highest value that falls in a bucket.
+     * @param bucket The bucket index.
+     * @return The highest value of the bucket.
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket - (long) shift * SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
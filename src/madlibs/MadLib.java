@@ -0,0 +1,128 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MadLib class is an immutable, generated Mad Lib.
+ * It holds the sentences, the position and word type of every blank space,
+ * and the spec and template catalog generation it was generated from, so
+ * it can be cached and passed between threads without copying.
+ */
+public final class MadLib {
+    private final MadLibSpec spec;
+    private final int catalogGeneration;
+    private final List<String> sentences;
+    private final List<BlankSpan> blanks;
+    private final int maxSentenceLength;
+    private final int responseCount;
+
+    /**
+     * Constructor for MadLib class.
+     * @param spec The spec the Mad Lib was generated from.
+     * @param catalogGeneration Generation of the template catalog the Mad Lib was generated from.
+     * @param sentences The sentences of the Mad Lib.
+     * @param blanks The blank spaces, ordered as they appear in the sentences.
+     */
+    protected MadLib(MadLibSpec spec, int catalogGeneration, List<String> sentences, List<BlankSpan> blanks) {
+        this.spec = spec;
+        this.catalogGeneration = catalogGeneration;
+        this.sentences = List.copyOf(sentences);
+        this.blanks = List.copyOf(blanks);
+        int max = 0;
+        for (String sentence : this.sentences) {
+            max = Math.max(max, sentence.length());
+        }
+        this.maxSentenceLength = max;
+        int responses = 0;
+        for (BlankSpan blank : this.blanks) {
+            if (!blank.isReference()) {
+                responses++;
+            }
+        }
+        this.responseCount = responses;
+    }
+
+    /**
+     * Returns the spec the Mad Lib was generated from.
+     * Passing it to MadLibFactory.replay() regenerates the unfilled Mad Lib.
+     * @return The generation spec.
+     */
+    protected MadLibSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Returns the generation of the template catalog the Mad Lib was generated from.
+     * Replaying its spec only gives the same Mad Lib while that catalog is current.
+     * @return The catalog generation.
+     */
+    protected int getCatalogGeneration() {
+        return catalogGeneration;
+    }
+
+    /**
+     * Returns the theme the Mad Lib was generated with.
+     * @return The theme (space/western/pirate/all).
+     */
+    protected String getTheme() {
+        return spec.theme();
+    }
+
+    /**
+     * Returns the seed the Mad Lib was generated with.
+     * @return The generation seed.
+     */
+    protected long getSeed() {
+        return spec.seed();
+    }
+
+    /**
+     * Returns the sentences of the Mad Lib.
+     * @return Unmodifiable list of sentences.
+     */
+    protected List<String> getSentences() {
+        return sentences;
+    }
+
+    /**
+     * Returns the blank spaces of the Mad Lib, in the order they appear.
+     * @return Unmodifiable list of blank spans.
+     */
+    protected List<BlankSpan> getBlanks() {
+        return blanks;
+    }
+
+    /**
+     * Returns the number of responses needed to fill the Mad Lib: one per
+     * blank space, except blanks that repeat an earlier blank's response.
+     * @return Response count.
+     */
+    protected int getResponseCount() {
+        return responseCount;
+    }
+
+    /**
+     * Returns the word types of the blank spaces that take a response, in the order they appear.
+     * @return A list of slot type names (noun/verb/plural noun/...).
+     */
+    protected List<String> getWordTypes() {
+        List<String> wordTypes = new ArrayList<>(responseCount);
+        for (BlankSpan blank : blanks) {
+            if (!blank.isReference()) {
+                wordTypes.add(blank.wordType());
+            }
+        }
+        return wordTypes;
+    }
+
+    /**
+     * Returns the length of the longest sentence.
+     * @return Longest sentence length.
+     */
+    protected int getMaxSentenceLength() {
+        return maxSentenceLength;
+    }
+}
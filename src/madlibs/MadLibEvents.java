@@ -0,0 +1,158 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * MadLibEvents class holds the Java Flight Recorder events emitted at each
+ * phase of producing a Mad Lib, so latency spikes can be lined up with GC
+ * and allocation in the same recording.
+ * <p>
+ * Call sites create an event only when its type is enabled, call begin() and
+ * commit only when shouldCommit() is true. The JIT does not reliably remove the
+ * allocation of a disabled event, and on the sentence path one kept the
+ * sentence buffer from being scalar replaced, so a disabled event costs no
+ * more than a flag check. The jfr/madlibs.jfc settings file enables them
+ * together with allocation profiling.
+ */
+public final class MadLibEvents {
+    private static final String CATEGORY = "Mad Libs";
+
+    protected static final EventType TEMPLATE_CHOSEN = EventType.getEventType(TemplateChosen.class);
+    protected static final EventType SENTENCE_BUILT = EventType.getEventType(SentenceBuilt.class);
+    protected static final EventType WORD_BANK_RESOLVED = EventType.getEventType(WordBankResolved.class);
+    protected static final EventType MADLIB_GENERATED = EventType.getEventType(MadLibGenerated.class);
+    protected static final EventType BLANKS_FILLED = EventType.getEventType(BlanksFilled.class);
+    protected static final EventType RENDERED = EventType.getEventType(Rendered.class);
+
+    private MadLibEvents() {
+    }
+
+    /**
+     * TemplateChosen class is emitted when the template of a sentence is selected.
+     */
+    @Name("madlibs.TemplateChosen")
+    @Label("Template Chosen")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    protected static final class TemplateChosen extends Event {
+        @Label("Theme")
+        protected String theme;
+
+        @Label("Template Index")
+        protected int templateIndex;
+
+        @Label("Slots")
+        @Description("Word slots in the template, each either drawn from the word bank or left blank")
+        protected int slots;
+    }
+
+    /**
+     * SentenceBuilt class is emitted when a sentence has been built from its template.
+     */
+    @Name("madlibs.SentenceBuilt")
+    @Label("Sentence Built")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    protected static final class SentenceBuilt extends Event {
+        @Label("Theme")
+        protected String theme;
+
+        @Label("Template Index")
+        protected int templateIndex;
+
+        @Label("Sentence Index")
+        protected int sentenceIndex;
+
+        @Label("Blank Count")
+        protected int blankCount;
+
+        @Label("Words Drawn")
+        protected int wordsDrawn;
+    }
+
+    /**
+     * WordBankResolved class is emitted when the word bank of a theme is looked up,
+     * which includes loading it from file on a cache miss.
+     */
+    @Name("madlibs.WordBankResolved")
+    @Label("Word Bank Resolved")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    protected static final class WordBankResolved extends Event {
+        @Label("Theme")
+        protected String theme;
+    }
+
+    /**
+     * MadLibGenerated class is emitted when all sentences of a Mad Lib have been built.
+     */
+    @Name("madlibs.MadLibGenerated")
+    @Label("Mad Lib Generated")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    protected static final class MadLibGenerated extends Event {
+        @Label("Theme")
+        protected String theme;
+
+        @Label("Seed")
+        protected long seed;
+
+        @Label("Sentences")
+        protected int sentences;
+
+        @Label("Blank Count")
+        protected int blankCount;
+    }
+
+    /**
+     * BlanksFilled class is emitted when the blanks of a Mad Lib have been filled with responses.
+     */
+    @Name("madlibs.BlanksFilled")
+    @Label("Blanks Filled")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    protected static final class BlanksFilled extends Event {
+        @Label("Theme")
+        protected String theme;
+
+        @Label("Blank Count")
+        @Description("Blanks before filling")
+        protected int blankCount;
+
+        @Label("Blanks Remaining")
+        @Description("Blanks left without a response")
+        protected int blanksRemaining;
+    }
+
+    /**
+     * Rendered class is emitted when a whole Mad Lib has been rendered to text.
+     */
+    @Name("madlibs.Rendered")
+    @Label("Mad Lib Rendered")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    protected static final class Rendered extends Event {
+        @Label("Theme")
+        protected String theme;
+
+        @Label("Format")
+        protected String format;
+
+        @Label("Sentences")
+        protected int sentences;
+
+        @Label("Blank Count")
+        protected int blankCount;
+
+        @Label("Characters")
+        protected int characters;
+    }
+}
@@ -0,0 +1,448 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * MadLibFactory class generates Mad Libs based on a provided theme,
+ * sentence count, and blank frequency
+ */
+public class MadLibFactory {
+    private static final long AUTO_FILL_SALT = 0x9E3779B97F4A7C15L;
+    private static final long BLANK_PLAN_SALT = 0xC2B2AE3D27D4EB4FL;
+
+    private final MadLibSpec spec;
+    private final SplittableRandom seeds;
+    private final SentenceFactory sentenceFactory;
+
+    /**
+     * Constructor for MadLibFactory class.
+     * Initializes the parameters, and creates a SentenceFactory instance.
+     * @param theme The theme for the Mad Lib.
+     * @param sentenceCount The number of sentences in the Mad Lib.
+     * @param blankFrequency The amount of blank spaces in the Mad Lib
+     */
+    protected MadLibFactory(String theme, int sentenceCount, double blankFrequency) {
+        this(theme, sentenceCount, blankFrequency, false);
+    }
+
+    /**
+     * Constructor for MadLibFactory class.
+     * Initializes the parameters, and creates a SentenceFactory instance.
+     * @param theme The theme for the Mad Lib.
+     * @param sentenceCount The number of sentences in the Mad Lib.
+     * @param blankFrequency The amount of blank spaces in the Mad Lib
+     * @param noRepeatTemplates Whether each template is used at most once per Mad Lib.
+     */
+    protected MadLibFactory(String theme, int sentenceCount, double blankFrequency,
+                            boolean noRepeatTemplates) {
+        this(new MadLibSpec(theme, sentenceCount, blankFrequency, noRepeatTemplates,
+                new SplittableRandom().nextLong()));
+    }
+
+    /**
+     * Constructor for MadLibFactory class.
+     * Initializes the parameters from a spec, and creates a SentenceFactory instance.
+     * The spec's seed fixes the seed of every Mad Lib the factory generates.
+     * @param spec The theme, size, blank frequency and seed of the Mad Libs.
+     */
+    protected MadLibFactory(MadLibSpec spec) {
+        this.spec = spec;
+        this.seeds = new SplittableRandom(spec.seed());
+        this.sentenceFactory = new SentenceFactory(spec.theme(), spec.blankFrequency());
+    }
+
+    /**
+     * Regenerates the Mad Lib described by a spec.
+     * The same spec always produces the same Mad Lib.
+     * @param spec The spec of the Mad Lib, as returned by MadLib.getSpec().
+     * @return The regenerated Mad Lib.
+     */
+    protected static MadLib replay(MadLibSpec spec) {
+        MadLibFactory factory = new MadLibFactory(spec);
+        return factory.generateMadLib(spec.seed());
+    }
+
+    /**
+     * Generates a Mad Lib based on the provided theme and sentence count.
+     * Each call draws a new Mad Lib seed from the factory's seed, so unlike
+     * generateMadLib(seed) it must not be called from several threads at once.
+     * @return The generated Mad Lib.
+     */
+    protected MadLib generateMadLib() {
+        return generateMadLib(seeds.nextLong());
+    }
+
+    /**
+     * Generates a Mad Lib from a seed. Every sentence gets its own random
+     * stream split from the seed, and all of its choices are drawn from it.
+     * @param seed The seed of the Mad Lib.
+     * @return The generated Mad Lib.
+     */
+    protected MadLib generateMadLib(long seed) {
+        long start = MadLibMetrics.ENABLED ? System.nanoTime() : 0;
+        MadLibEvents.MadLibGenerated event = null;
+        if (MadLibEvents.MADLIB_GENERATED.isEnabled()) {
+            event = new MadLibEvents.MadLibGenerated();
+            event.begin();
+        }
+        WordBank wordBank = resolveWordBank();
+        SentenceFactory.Round round = newTemplateRound(seed);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        List<String> sentences = new ArrayList<>(spec.sentenceCount());
+        List<BlankSpan> blanks = new ArrayList<>();
+        for (int i = 0; i < spec.sentenceCount(); i++) {
+            sentences.add(sentenceFactory.buildSentence(wordBank, random.split(), round, i, blanks));
+        }
+        MadLib madLib = new MadLib(spec.withSeed(seed), round.getCatalogGeneration(), sentences, blanks);
+        if (MadLibMetrics.ENABLED) {
+            MadLibMetrics.record(MadLibMetrics.Stage.GENERATE, start);
+        }
+        commitGenerated(event, madLib);
+        return madLib;
+    }
+
+    /**
+     * Generates several Mad Libs in parallel across all cores. Each result
+     * is identical to generateMadLib() with the same seed.
+     * @param seeds The seeds of the Mad Libs to generate.
+     * @return The generated Mad Libs, in seed order.
+     */
+    protected List<MadLib> generateMadLibs(long[] seeds) {
+        return Arrays.stream(seeds)
+                .parallel()
+                .mapToObj(this::generateMadLib)
+                .toList();
+    }
+
+    /**
+     * Generates one Mad Lib with its sentences built in parallel across all cores.
+     * Sentence streams and templates are assigned up front in sentence order,
+     * so the result is identical to generateMadLib(seed).
+     * @param seed The seed of the Mad Lib.
+     * @return The generated Mad Lib.
+     */
+    protected MadLib generateMadLibParallel(long seed) {
+        long start = MadLibMetrics.ENABLED ? System.nanoTime() : 0;
+        MadLibEvents.MadLibGenerated event = null;
+        if (MadLibEvents.MADLIB_GENERATED.isEnabled()) {
+            event = new MadLibEvents.MadLibGenerated();
+            event.begin();
+        }
+        WordBank wordBank = resolveWordBank();
+        SentenceFactory.Round round = newTemplateRound(seed);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        int sentenceCount = spec.sentenceCount();
+        SplittableRandom[] streams = new SplittableRandom[sentenceCount];
+        int[] templateIndices = new int[sentenceCount];
+        BitSet[] plannedBlanks = new BitSet[sentenceCount];
+        for (int i = 0; i < sentenceCount; i++) {
+            streams[i] = random.split();
+            templateIndices[i] = sentenceFactory.selectTemplate(streams[i], round);
+            BitSet planned = round.planBlanks(templateIndices[i]);
+            plannedBlanks[i] = planned == null ? null : (BitSet) planned.clone();
+        }
+
+        String[] sentences = new String[sentenceCount];
+        List<List<BlankSpan>> sentenceBlanks = new ArrayList<>(Collections.nCopies(sentenceCount, null));
+        IntStream.range(0, sentenceCount).parallel().forEach(i -> {
+            List<BlankSpan> blanks = new ArrayList<>();
+            sentences[i] = sentenceFactory.buildSentence(wordBank, streams[i], round, templateIndices[i],
+                    plannedBlanks[i], i, blanks);
+            sentenceBlanks.set(i, blanks);
+        });
+
+        List<BlankSpan> blanks = new ArrayList<>();
+        for (List<BlankSpan> spans : sentenceBlanks) {
+            int base = blanks.size();
+            for (BlankSpan span : spans) {
+                blanks.add(span.isReference() ? span.moveTo(span.offset(), base + span.sameAs()) : span);
+            }
+        }
+        MadLib madLib = new MadLib(spec.withSeed(seed), round.getCatalogGeneration(), Arrays.asList(sentences),
+                blanks);
+        if (MadLibMetrics.ENABLED) {
+            MadLibMetrics.record(MadLibMetrics.Stage.GENERATE, start);
+        }
+        commitGenerated(event, madLib);
+        return madLib;
+    }
+
+    /**
+     * Prints the filled or unfilled Mad Lib to console.
+     * @param madLib The Mad Lib to print.
+     */
+    protected void printMadLib(MadLib madLib) {
+        printMadLib(madLib, System.out);
+    }
+
+    /**
+     * Prints the filled or unfilled Mad Lib to an output stream,
+     * in a box as wide as the longest sentence.
+     * @param madLib The Mad Lib to print.
+     * @param out The stream to print to.
+     */
+    protected void printMadLib(MadLib madLib, PrintStream out) {
+        MadLibRenderer.box().print(madLib, out);
+    }
+
+    /**
+     * Generates a Mad Lib and writes it one sentence at a time as the sentences
+     * are built, so memory use does not grow with the sentence count.
+     * Blanks are filled from the responses as they appear, then from the word
+     * banks if autoFill is set. The output matches generating the Mad Lib with
+     * generateMadLib(seed), filling it with fillBlanks() and autoFillResponses(),
+     * and rendering it at the writer's width.
+     * @param seed The seed of the Mad Lib.
+     * @param writer The writer the Mad Lib is written to.
+     * @param responses Words to fill the blanks with, consumed in order.
+     * @param autoFill Whether blanks left without a response get a word from the word banks.
+     */
+    protected void streamMadLib(long seed, MadLibWriter writer, Iterator<String> responses,
+                                boolean autoFill) throws IOException {
+        WordBank wordBank = resolveWordBank();
+        boolean anyTheme = spec.theme().equalsIgnoreCase("all");
+        SentenceFactory.Round round = newTemplateRound(seed);
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom fillRandom = new SplittableRandom(seed ^ AUTO_FILL_SALT);
+
+        List<BlankSpan> blanks = new ArrayList<>();
+        StringBuilder filled = new StringBuilder();
+        writer.beginMadLib(spec.withSeed(seed));
+        for (int i = 0; i < spec.sentenceCount(); i++) {
+            blanks.clear();
+            String sentence = sentenceFactory.buildSentence(wordBank, random.split(), round, i, blanks);
+            if (blanks.isEmpty()) {
+                writer.writeSentence(sentence);
+                continue;
+            }
+            filled.setLength(0);
+            int copied = 0;
+            String[] words = new String[blanks.size()];
+            for (int b = 0; b < blanks.size(); b++) {
+                BlankSpan blank = blanks.get(b);
+                filled.append(sentence, copied, blank.offset());
+                String word;
+                if (blank.isReference()) {
+                    word = words[blank.sameAs()];
+                } else {
+                    // Auto-fill words are drawn for every response blank, as in autoFillResponses().
+                    word = autoFill ? SlotRegistry.byName(blank.wordType()).draw(wordBank, anyTheme, fillRandom) : null;
+                    if (responses.hasNext()) {
+                        word = responses.next();
+                    }
+                }
+                words[b] = word;
+                if (word == null) {
+                    filled.append(sentence, blank.offset(), blank.end());
+                } else {
+                    appendResponse(filled, blank, word);
+                }
+                copied = blank.end();
+            }
+            filled.append(sentence, copied, sentence.length());
+            writer.writeSentence(filled.toString());
+        }
+        writer.endMadLib();
+    }
+
+    /**
+     * Picks a word from the theme's word bank for every blank space of a Mad Lib
+     * that takes its own response. The words are drawn from a stream derived
+     * from the Mad Lib's seed, so the same Mad Lib is always filled the same way.
+     * For a single theme whose blanks all draw from non-empty word types, the
+     * indices of all words are drawn in one batch.
+     * @param madLib The Mad Lib to pick words for.
+     * @return One word per response blank, in the order the blanks appear.
+     */
+    protected List<String> autoFillResponses(MadLib madLib) {
+        WordBank wordBank = resolveWordBank();
+        boolean anyTheme = spec.theme().equalsIgnoreCase("all");
+        SplittableRandom random = new SplittableRandom(madLib.getSeed() ^ AUTO_FILL_SALT);
+        List<BlankSpan> blanks = madLib.getBlanks();
+        SlotType[] slotTypes = new SlotType[madLib.getResponseCount()];
+        boolean batch = !anyTheme;
+        int count = 0;
+        for (BlankSpan blank : blanks) {
+            if (blank.isReference()) {
+                continue;
+            }
+            SlotType slotType = SlotRegistry.byName(blank.wordType());
+            batch &= slotType.getKind() == SlotType.Kind.WORD && wordBank.getWordCount(slotType.getWordType()) > 0;
+            slotTypes[count++] = slotType;
+        }
+
+        List<String> responses = new ArrayList<>(slotTypes.length);
+        if (batch) {
+            int[] types = new int[slotTypes.length];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = slotTypes[i].getWordType();
+            }
+            int[] indices = new int[types.length];
+            wordBank.sampleIndices(types, random, indices);
+            for (int i = 0; i < types.length; i++) {
+                responses.add(wordBank.getWord(types[i], indices[i], slotTypes[i].getForm()));
+            }
+        } else {
+            for (SlotType slotType : slotTypes) {
+                responses.add(slotType.draw(wordBank, anyTheme, random));
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * Fills the blank spaces of a Mad Lib with user responses.
+     * Blanks are filled in the order they appear, using their recorded positions,
+     * in a single pass over each sentence. Each response fills one blank, and
+     * blanks that repeat an earlier blank take its response. Responses are put
+     * in the form the sentence needs ("she sails" for "sail"), and an "a" in
+     * front of a blank becomes "an" where the response needs it. Blanks without a
+     * matching response keep their placeholder and stay blank in the returned Mad Lib.
+     * @param madLib The Mad Lib to fill.
+     * @param responses List of user response words
+     * @return A new Mad Lib with blank spaces filled with user responses.
+     */
+    protected MadLib fillBlanks(MadLib madLib, List<String> responses) {
+        long start = MadLibMetrics.ENABLED ? System.nanoTime() : 0;
+        MadLibEvents.BlanksFilled event = null;
+        if (MadLibEvents.BLANKS_FILLED.isEnabled()) {
+            event = new MadLibEvents.BlanksFilled();
+            event.begin();
+        }
+        List<String> sentences = new ArrayList<>(madLib.getSentences());
+        List<BlankSpan> blanks = madLib.getBlanks();
+        List<BlankSpan> remaining = new ArrayList<>();
+        String[] used = new String[blanks.size()];
+        int[] remainingIndex = new int[blanks.size()];
+        int blankIndex = 0;
+        int responseIndex = 0;
+        while (blankIndex < blanks.size()) {
+            int sentenceIndex = blanks.get(blankIndex).sentence();
+            String sentence = sentences.get(sentenceIndex);
+            StringBuilder filled = new StringBuilder(sentence.length() + 16);
+            int copied = 0;
+            while (blankIndex < blanks.size() && blanks.get(blankIndex).sentence() == sentenceIndex) {
+                int index = blankIndex++;
+                BlankSpan blank = blanks.get(index);
+                filled.append(sentence, copied, blank.offset());
+                String response = null;
+                if (blank.isReference()) {
+                    response = used[blank.sameAs()];
+                } else if (responseIndex < responses.size()) {
+                    response = responses.get(responseIndex++);
+                }
+                used[index] = response;
+                if (response != null) {
+                    appendResponse(filled, blank, response);
+                } else {
+                    remainingIndex[index] = remaining.size();
+                    remaining.add(blank.moveTo(filled.length(),
+                            blank.isReference() ? remainingIndex[blank.sameAs()] : -1));
+                    filled.append(sentence, blank.offset(), blank.end());
+                }
+                copied = blank.end();
+            }
+            filled.append(sentence, copied, sentence.length());
+            sentences.set(sentenceIndex, filled.toString());
+        }
+        MadLib filledMadLib = new MadLib(madLib.getSpec(), madLib.getCatalogGeneration(), sentences, remaining);
+        if (MadLibMetrics.ENABLED) {
+            MadLibMetrics.record(MadLibMetrics.Stage.FILL, start);
+        }
+        if (event != null && event.shouldCommit()) {
+            event.theme = madLib.getTheme();
+            event.blankCount = blanks.size();
+            event.blanksRemaining = remaining.size();
+            event.commit();
+        }
+        return filledMadLib;
+    }
+
+    /**
+     * Appends the response of a blank, in the form the blank's sentence needs,
+     * fixing the article in front of the blank for the response.
+     * @param filled The filled sentence so far, ending just before the blank.
+     * @param blank The blank being filled.
+     * @param response The response, as given.
+     */
+    private static void appendResponse(StringBuilder filled, BlankSpan blank, String response) {
+        if (blank.articleLength() > 0) {
+            int articleStart = filled.length() - blank.articleLength();
+            boolean capital = Character.isUpperCase(filled.charAt(articleStart));
+            filled.setLength(articleStart);
+            Inflector.appendArticle(filled, Inflector.takesAn(response), capital);
+        }
+        filled.append(blank.agreement() == Inflector.Form.BASE ? response :
+                Inflector.inflect(response, blank.agreement()));
+    }
+
+    /**
+     * Starts the template round of a Mad Lib. If the spec asks for an exact
+     * number of blanks, the Mad Lib's templates are selected ahead on a replay
+     * of the round, from the same sentence streams the Mad Lib will use, and
+     * their slots are counted by type to plan the blanks. Only the counts are
+     * kept, so streamed Mad Libs of any length plan their blanks in flat memory.
+     * @param seed The seed of the Mad Lib.
+     * @return The template round, with a blank plan if the spec has a blank count.
+     */
+    private SentenceFactory.Round newTemplateRound(long seed) {
+        SentenceFactory.Round round = sentenceFactory.newTemplateRound(spec.noRepeatTemplates());
+        if (spec.hasBlankCount()) {
+            SentenceFactory.Round planning = round.replay();
+            SplittableRandom random = new SplittableRandom(seed);
+            long[] slotsByType = new long[SlotRegistry.getSlotTypes().size()];
+            for (int i = 0; i < spec.sentenceCount(); i++) {
+                BlankPlan.countSlots(planning.get(planning.next(random.split())), slotsByType);
+            }
+            round.useBlankPlan(BlankPlan.of(slotsByType, spec.blankCount(),
+                    new SplittableRandom(seed ^ BLANK_PLAN_SALT)));
+        }
+        return round;
+    }
+
+    /**
+     * Looks up the word bank of the factory's theme, loading it on first use.
+     * @return The word bank.
+     */
+    private WordBank resolveWordBank() {
+        MadLibEvents.WordBankResolved event = null;
+        if (MadLibEvents.WORD_BANK_RESOLVED.isEnabled()) {
+            event = new MadLibEvents.WordBankResolved();
+            event.begin();
+        }
+        WordBank wordBank = WordBankRegistry.getBank(spec.theme());
+        if (event != null && event.shouldCommit()) {
+            event.theme = spec.theme();
+            event.commit();
+        }
+        return wordBank;
+    }
+
+    /**
+     * Emits the event of a generated Mad Lib, if it is enabled.
+     * @param event The event, begun when generation started, or null while it is disabled.
+     * @param madLib The generated Mad Lib.
+     */
+    private static void commitGenerated(MadLibEvents.MadLibGenerated event, MadLib madLib) {
+        if (event != null && event.shouldCommit()) {
+            event.theme = madLib.getTheme();
+            event.seed = madLib.getSeed();
+            event.sentences = madLib.getSentences().size();
+            event.blankCount = madLib.getBlanks().size();
+            event.commit();
+        }
+    }
+}
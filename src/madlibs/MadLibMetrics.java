@@ -0,0 +1,190 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * MadLibMetrics class records where time goes when Mad Libs are generated,
+ * filled and rendered: a latency histogram per stage, words drawn per theme,
+ * blanks per sentence and template usage.
+ * <p>
+ * Metrics are enabled with -Dmadlibs.metrics=true. ENABLED is a constant, so
+ * when metrics are off the JIT removes every guarded call site and the hot
+ * path does no extra work. When on, they are published over JMX as
+ * madlibs:type=Metrics and as a text snapshot.
+ */
+public final class MadLibMetrics implements MadLibMetricsMXBean {
+    protected static final boolean ENABLED = Boolean.getBoolean("madlibs.metrics");
+    protected static final String OBJECT_NAME = "madlibs:type=Metrics";
+    private static final int MAX_TRACKED_BLANKS = 16;
+    private static final MadLibMetrics INSTANCE = new MadLibMetrics();
+
+    /**
+     * Stages of producing a Mad Lib that are timed.
+     */
+    protected enum Stage {
+        /** MadLibFactory.generateMadLib(), all sentences of one Mad Lib. */
+        GENERATE,
+        /** SentenceFactory.buildSentence(), one sentence. */
+        SENTENCE,
+        /** MadLibFactory.fillBlanks(). */
+        FILL,
+        /** MadLibRenderer.render(), including printMadLib(). */
+        RENDER
+    }
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Stage.values().length];
+    private final Map<String, LongAdder> wordsDrawn = new ConcurrentHashMap<>();
+    private final AtomicLongArray blanksPerSentence = new AtomicLongArray(MAX_TRACKED_BLANKS + 1);
+    private final Map<String, LongAdder> templateUsage = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                System.err.println("Could not register metrics with JMX: " + e.getMessage());
+            }
+        }
+    }
+
+    private MadLibMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records how long a stage took. Call sites check ENABLED first.
+     * @param stage The stage.
+     * @param startNanos System.nanoTime() when the stage started.
+     */
+    protected static void record(Stage stage, long startNanos) {
+        INSTANCE.latencies[stage.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records the makeup of a built sentence. Call sites check ENABLED first.
+     * @param theme The theme the words were drawn from.
+     * @param template The template text of the sentence. Keyed by text, so a
+     *                 reloaded catalog's templates share counts and old ones are not kept alive.
+     * @param words Number of words drawn from a word bank, not counting repeated slots.
+     * @param blanks Number of blank spaces.
+     */
+    protected static void recordSentence(String theme, String template, int words, int blanks) {
+        INSTANCE.wordsDrawn.computeIfAbsent(theme, t -> new LongAdder()).add(words);
+        INSTANCE.blanksPerSentence.incrementAndGet(Math.min(blanks, MAX_TRACKED_BLANKS));
+        INSTANCE.templateUsage.computeIfAbsent(template, t -> new LongAdder()).increment();
+    }
+
+    /**
+     * Returns the metrics instance, for publishing it.
+     * @return The metrics instance.
+     */
+    protected static MadLibMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public Map<String, Long> getStageCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            counts.put(nameOf(stage), latencies[stage.ordinal()].getCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getStageLatenciesMicros() {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot snapshot = latencies[stage.ordinal()].snapshot();
+            String name = nameOf(stage);
+            percentiles.put(name + ".mean", snapshot.mean() / 1000);
+            percentiles.put(name + ".p50", snapshot.p50() / 1000.0);
+            percentiles.put(name + ".p90", snapshot.p90() / 1000.0);
+            percentiles.put(name + ".p99", snapshot.p99() / 1000.0);
+            percentiles.put(name + ".p999", snapshot.p999() / 1000.0);
+            percentiles.put(name + ".max", snapshot.max() / 1000.0);
+        }
+        return percentiles;
+    }
+
+    @Override
+    public Map<String, Long> getWordsDrawn() {
+        Map<String, Long> counts = new TreeMap<>();
+        wordsDrawn.forEach((theme, count) -> counts.put(theme, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public Map<Integer, Long> getBlanksPerSentence() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (int i = 0; i < blanksPerSentence.length(); i++) {
+            long count = blanksPerSentence.get(i);
+            if (count > 0) {
+                counts.put(i, count);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getTemplateUsage() {
+        Map<String, Long> counts = new TreeMap<>();
+        templateUsage.forEach((template, count) -> counts.put(template, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public String getSnapshot() {
+        StringBuilder text = new StringBuilder(4096);
+        text.append("# Stage latencies (microseconds)\n");
+        text.append(String.format("%-10s %10s %10s %10s %10s %10s %10s %10s%n",
+                "stage", "count", "mean", "p50", "p90", "p99", "p99.9", "max"));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot snapshot = latencies[stage.ordinal()].snapshot();
+            text.append(String.format("%-10s %10d %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                    nameOf(stage), snapshot.count(), snapshot.mean() / 1000, snapshot.p50() / 1000.0,
+                    snapshot.p90() / 1000.0, snapshot.p99() / 1000.0, snapshot.p999() / 1000.0,
+                    snapshot.max() / 1000.0));
+        }
+        text.append("\n# Words drawn per theme\n");
+        getWordsDrawn().forEach((theme, count) -> text.append(theme).append(' ').append(count).append('\n'));
+        text.append("\n# Sentences per blank count (").append(MAX_TRACKED_BLANKS).append(" means that many or more)\n");
+        getBlanksPerSentence().forEach((blanks, count) -> text.append(blanks).append(' ').append(count).append('\n'));
+        text.append("\n# Template usage\n");
+        getTemplateUsage().forEach((template, count) -> text.append(count).append(' ').append(template).append('\n'));
+        return text.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : latencies) {
+            histogram.reset();
+        }
+        wordsDrawn.clear();
+        for (int i = 0; i < blanksPerSentence.length(); i++) {
+            blanksPerSentence.set(i, 0);
+        }
+        templateUsage.clear();
+    }
+
+    /**
+     * Returns the name a stage is reported under.
+     * @param stage The stage.
+     * @return The lower-case stage name.
+     */
+    private static String nameOf(Stage stage) {
+        return stage.name().toLowerCase();
+    }
+}
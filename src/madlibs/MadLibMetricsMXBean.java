@@ -0,0 +1,52 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.Map;
+
+/**
+ * MadLibMetricsMXBean interface is the JMX view of MadLibMetrics,
+ * registered as madlibs:type=Metrics when metrics are enabled.
+ */
+public interface MadLibMetricsMXBean {
+    /**
+     * Returns the number of operations recorded per stage, keyed by stage name.
+     * @return Operation counts.
+     */
+    Map<String, Long> getStageCounts();
+
+    /**
+     * Returns latency percentiles in microseconds, keyed as stage.p50, stage.p99 and so on.
+     * @return Latency percentiles.
+     */
+    Map<String, Double> getStageLatenciesMicros();
+
+    /**
+     * Returns the number of words drawn per theme.
+     * @return Word counts keyed by theme.
+     */
+    Map<String, Long> getWordsDrawn();
+
+    /**
+     * Returns how many sentences had each number of blanks.
+     * @return Sentence counts keyed by blank count.
+     */
+    Map<Integer, Long> getBlanksPerSentence();
+
+    /**
+     * Returns how often each template was used.
+     * @return Use counts keyed by template source.
+     */
+    Map<String, Long> getTemplateUsage();
+
+    /**
+     * Returns the text snapshot of every metric.
+     * @return The snapshot.
+     */
+    String getSnapshot();
+
+    /**
+     * Clears every metric.
+     */
+    void reset();
+}
@@ -0,0 +1,210 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MadLibPool class keeps ready-made Mad Libs for hot combinations of theme,
+ * sentence count and blank frequency, so a request for one is answered
+ * without generating anything.
+ * <p>
+ * Each registered combination has a bounded queue of Mad Libs with random
+ * seeds. A background thread tops a queue up whenever it falls to half
+ * full, and callers only generate inline when the queue is empty or the
+ * combination is not registered. Mad Libs generated from a template catalog
+ * that has since been reloaded are dropped when they are taken, so a pooled
+ * Mad Lib always replays the same from its spec.
+ */
+public final class MadLibPool {
+    private final int depth;
+    private final Map<MadLibSpec, Entry> entries = new ConcurrentHashMap<>();
+    private final BlockingQueue<Entry> refills = new LinkedBlockingQueue<>();
+    private final Thread producer;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder produced = new LongAdder();
+    private final LongAdder refillCount = new LongAdder();
+    private final LongAdder refillNanos = new LongAdder();
+    private volatile long maxRefillNanos;
+
+    /**
+     * Stats record is a snapshot of the pool counters.
+     * @param combinations Registered combinations.
+     * @param queued Mad Libs ready in the queues.
+     * @param capacity Mad Libs the queues hold when full.
+     * @param hits Requests answered from a queue.
+     * @param misses Requests that found no ready Mad Lib.
+     * @param stale Mad Libs dropped because the template catalog was reloaded.
+     * @param produced Mad Libs generated by the background thread.
+     * @param refills Times a queue was topped up.
+     * @param totalRefillNanos Time spent topping queues up, in nanoseconds.
+     * @param maxRefillNanos Longest time spent topping up one queue, in nanoseconds.
+     */
+    protected record Stats(int combinations, long queued, long capacity, long hits, long misses,
+                           long stale, long produced, long refills, long totalRefillNanos, long maxRefillNanos) {
+        /**
+         * Returns how full the queues are.
+         * @return Queued Mad Libs as a fraction of capacity.
+         */
+        protected double fillLevel() {
+            return capacity == 0 ? 0 : (double) queued / capacity;
+        }
+    }
+
+    /**
+     * Entry class is the queue and factory of one combination.
+     */
+    private static final class Entry {
+        private final MadLibFactory factory;
+        private final BlockingQueue<MadLib> queue;
+        private final AtomicBoolean refillRequested = new AtomicBoolean();
+
+        /**
+         * Constructor for Entry class.
+         * @param combination The combination, with seed 0.
+         * @param depth Capacity of the queue.
+         */
+        private Entry(MadLibSpec combination, int depth) {
+            this.factory = new MadLibFactory(combination.withSeed(ThreadLocalRandom.current().nextLong()));
+            this.queue = new ArrayBlockingQueue<>(depth);
+        }
+    }
+
+    /**
+     * Constructor for MadLibPool class.
+     * Starts the background thread that fills the queues.
+     * @param depth Number of Mad Libs kept ready per combination.
+     */
+    protected MadLibPool(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Pool depth must be at least 1: " + depth);
+        }
+        this.depth = depth;
+        this.producer = Thread.ofPlatform().name("madlib-pool").daemon().start(this::produce);
+    }
+
+    /**
+     * Registers the combinations offered by the interactive game: every theme,
+     * each of its blank frequencies and sentence counts from 1 to maxSentences.
+     * @param themes The themes to register.
+     * @param maxSentences The longest Mad Lib to register.
+     */
+    protected void registerGameCombinations(List<String> themes, int maxSentences) {
+        for (String theme : themes) {
+            for (double blankFrequency : new double[]{0.1, 0.25, 0.5}) {
+                for (int sentenceCount = 1; sentenceCount <= maxSentences; sentenceCount++) {
+                    register(new MadLibSpec(theme, sentenceCount, blankFrequency, false, 0));
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a combination, so Mad Libs for it are generated ahead of time.
+     * @param spec The combination; its seed is ignored.
+     */
+    protected void register(MadLibSpec spec) {
+        entries.computeIfAbsent(spec.withSeed(0), combination -> {
+            Entry entry = new Entry(combination, depth);
+            requestRefill(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Takes a ready-made Mad Lib of a combination, with a random seed,
+     * dropping Mad Libs generated from an earlier template catalog.
+     * @param spec The combination; its seed is ignored.
+     * @return The Mad Lib, or null if the combination is not registered or its
+     * queue is empty, in which case the caller generates it inline.
+     */
+    protected MadLib poll(MadLibSpec spec) {
+        Entry entry = entries.get(spec.withSeed(0));
+        MadLib madLib = null;
+        if (entry != null) {
+            int generation = TemplateRegistry.getCatalog().getGeneration();
+            while ((madLib = entry.queue.poll()) != null && madLib.getCatalogGeneration() != generation) {
+                stale.increment();
+            }
+            if (entry.queue.size() <= depth / 2) {
+                requestRefill(entry);
+            }
+        }
+        if (madLib == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return madLib;
+    }
+
+    /**
+     * Stops the background thread. Queued Mad Libs can still be taken.
+     */
+    protected void shutdown() {
+        producer.interrupt();
+    }
+
+    /**
+     * Returns a snapshot of the pool counters.
+     * @return The current stats.
+     */
+    protected Stats getStats() {
+        long queued = 0;
+        for (Entry entry : entries.values()) {
+            queued += entry.queue.size();
+        }
+        return new Stats(entries.size(), queued, (long) entries.size() * depth, hits.sum(), misses.sum(),
+                stale.sum(), produced.sum(), refillCount.sum(), refillNanos.sum(), maxRefillNanos);
+    }
+
+    /**
+     * Queues an entry for the background thread, unless it is already queued.
+     * @param entry The entry to top up.
+     */
+    private void requestRefill(Entry entry) {
+        if (entry.refillRequested.compareAndSet(false, true)) {
+            refills.add(entry);
+        }
+    }
+
+    /**
+     * Body of the background thread: tops up queues as they are requested.
+     * Only this thread calls generateMadLib() on the entries' factories, so
+     * their seed sequences need no locking.
+     */
+    private void produce() {
+        try {
+            while (true) {
+                Entry entry = refills.take();
+                entry.refillRequested.set(false);
+                long start = System.nanoTime();
+                while (entry.queue.remainingCapacity() > 0) {
+                    if (Thread.interrupted()) {
+                        return;
+                    }
+                    entry.queue.offer(entry.factory.generateMadLib());
+                    produced.increment();
+                }
+                long elapsed = System.nanoTime() - start;
+                refillCount.increment();
+                refillNanos.add(elapsed);
+                if (elapsed > maxRefillNanos) {
+                    maxRefillNanos = elapsed;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shut down.
+        }
+    }
+}
@@ -0,0 +1,338 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * MadLibRenderer class turns Mad Libs into text in one of several formats.
+ * A whole Mad Lib is rendered into a single pre-sized buffer, so printing
+ * it costs one write and one flush. The header, sentence and footer steps
+ * are also exposed so MadLibWriter can render one sentence at a time.
+ */
+public class MadLibRenderer {
+    protected static final int DEFAULT_WIDTH = 72;
+    private static final String HEADER = "Mad Lib";
+    private static final String NEW_LINE = System.lineSeparator();
+
+    /**
+     * Output formats of a rendered Mad Lib.
+     */
+    protected enum Format {
+        /** Sentences wrapped at the width and separated by blank lines. */
+        PLAIN,
+        /** Sentences wrapped inside a bordered box with a header, as printed in the game. */
+        BOX,
+        /** One JSON object per Mad Lib with its theme, seed and sentences. */
+        JSON,
+        /** A div holding a heading and one paragraph per sentence. */
+        HTML
+    }
+
+    private final Format format;
+    private final int width;
+
+    /**
+     * Constructor for MadLibRenderer class.
+     * @param format The output format.
+     * @param width Characters per line for wrapped formats, or 0 to fit the
+     *              longest sentence of each Mad Lib without wrapping.
+     */
+    protected MadLibRenderer(Format format, int width) {
+        if (width < 0) {
+            throw new IllegalArgumentException("Width must not be negative: " + width);
+        }
+        this.format = format;
+        this.width = width;
+    }
+
+    /**
+     * Returns the renderer used by the game: a box fitted to the longest sentence.
+     * @return The default renderer.
+     */
+    protected static MadLibRenderer box() {
+        return new MadLibRenderer(Format.BOX, 0);
+    }
+
+    /**
+     * Returns the output format.
+     * @return The format.
+     */
+    protected Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the configured line width.
+     * @return Characters per line, or 0 when lines fit the longest sentence.
+     */
+    protected int getWidth() {
+        return width;
+    }
+
+    /**
+     * Renders a whole Mad Lib into a new string.
+     * @param madLib The Mad Lib to render.
+     * @return The rendered Mad Lib.
+     */
+    protected String render(MadLib madLib) {
+        StringBuilder out = new StringBuilder(estimateLength(madLib));
+        render(madLib, out);
+        return out.toString();
+    }
+
+    /**
+     * Renders a whole Mad Lib onto a buffer.
+     * @param madLib The Mad Lib to render.
+     * @param out The buffer to append to.
+     */
+    protected void render(MadLib madLib, StringBuilder out) {
+        long start = MadLibMetrics.ENABLED ? System.nanoTime() : 0;
+        MadLibEvents.Rendered event = null;
+        if (MadLibEvents.RENDERED.isEnabled()) {
+            event = new MadLibEvents.Rendered();
+            event.begin();
+        }
+        int startLength = out.length();
+        int lineWidth = width > 0 ? width : madLib.getMaxSentenceLength();
+        appendHeader(out, madLib.getSpec(), lineWidth);
+        List<String> sentences = madLib.getSentences();
+        for (int i = 0; i < sentences.size(); i++) {
+            appendSentence(out, sentences.get(i), i, lineWidth);
+        }
+        appendFooter(out, lineWidth);
+        if (MadLibMetrics.ENABLED) {
+            MadLibMetrics.record(MadLibMetrics.Stage.RENDER, start);
+        }
+        if (event != null && event.shouldCommit()) {
+            event.theme = madLib.getTheme();
+            event.format = format.name();
+            event.sentences = sentences.size();
+            event.blankCount = madLib.getBlanks().size();
+            event.characters = out.length() - startLength;
+            event.commit();
+        }
+    }
+
+    /**
+     * Renders a Mad Lib and prints it with a single write, then flushes once.
+     * @param madLib The Mad Lib to print.
+     * @param out The stream to print to.
+     */
+    protected void print(MadLib madLib, PrintStream out) {
+        out.print(render(madLib));
+        out.flush();
+    }
+
+    /**
+     * Estimates the rendered length of a Mad Lib, used to pre-size buffers.
+     * @param madLib The Mad Lib to render.
+     * @return The estimated number of characters.
+     */
+    protected int estimateLength(MadLib madLib) {
+        int textLength = 0;
+        for (String sentence : madLib.getSentences()) {
+            textLength += sentence.length();
+        }
+        int sentenceCount = madLib.getSentences().size();
+        return switch (format) {
+            case PLAIN -> textLength + sentenceCount * 4 + 16;
+            case JSON -> textLength + textLength / 8 + sentenceCount * 4 + 64;
+            case HTML -> textLength + textLength / 8 + sentenceCount * 9 + 64;
+            case BOX -> {
+                int lineWidth = Math.max(width > 0 ? width : madLib.getMaxSentenceLength(), HEADER.length());
+                int lines = textLength / lineWidth + sentenceCount * 2 + 6;
+                yield lines * (lineWidth + 4 + NEW_LINE.length());
+            }
+        };
+    }
+
+    /**
+     * Appends what comes before the first sentence of a Mad Lib.
+     * @param out The buffer to append to.
+     * @param spec The spec of the Mad Lib.
+     * @param lineWidth Characters per line.
+     */
+    protected void appendHeader(StringBuilder out, MadLibSpec spec, int lineWidth) {
+        switch (format) {
+            case PLAIN -> {
+            }
+            case BOX -> {
+                lineWidth = Math.max(lineWidth, HEADER.length());
+                out.append(NEW_LINE);
+                appendBorder(out, lineWidth);
+                appendBoxLine(out, HEADER, 0, HEADER.length(), lineWidth);
+                appendBorder(out, lineWidth);
+            }
+            case JSON -> {
+                out.append("{\"theme\":");
+                appendJsonString(out, spec.theme());
+                out.append(",\"seed\":").append(spec.seed()).append(",\"sentences\":[");
+            }
+            case HTML -> out.append("<div class=\"madlib\">").append(NEW_LINE)
+                    .append("<h2>").append(HEADER).append("</h2>").append(NEW_LINE);
+        }
+    }
+
+    /**
+     * Appends one sentence of a Mad Lib.
+     * @param out The buffer to append to.
+     * @param sentence The sentence.
+     * @param index Index of the sentence within the Mad Lib.
+     * @param lineWidth Characters per line.
+     */
+    protected void appendSentence(StringBuilder out, String sentence, int index, int lineWidth) {
+        switch (format) {
+            case PLAIN -> {
+                if (index > 0) {
+                    out.append(NEW_LINE);
+                }
+                appendWrapped(out, sentence, lineWidth, false);
+            }
+            case BOX -> {
+                lineWidth = Math.max(lineWidth, HEADER.length());
+                if (index > 0) {
+                    appendBoxLine(out, "", 0, 0, lineWidth);
+                }
+                appendWrapped(out, sentence, lineWidth, true);
+            }
+            case JSON -> {
+                if (index > 0) {
+                    out.append(',');
+                }
+                appendJsonString(out, sentence);
+            }
+            case HTML -> {
+                out.append("<p>");
+                appendHtml(out, sentence);
+                out.append("</p>").append(NEW_LINE);
+            }
+        }
+    }
+
+    /**
+     * Appends what comes after the last sentence of a Mad Lib.
+     * @param out The buffer to append to.
+     * @param lineWidth Characters per line.
+     */
+    protected void appendFooter(StringBuilder out, int lineWidth) {
+        switch (format) {
+            case PLAIN -> out.append(NEW_LINE);
+            case BOX -> {
+                appendBorder(out, Math.max(lineWidth, HEADER.length()));
+                out.append(NEW_LINE);
+            }
+            case JSON -> out.append("]}").append(NEW_LINE);
+            case HTML -> out.append("</div>").append(NEW_LINE);
+        }
+    }
+
+    /**
+     * Appends a sentence split into lines of at most lineWidth characters.
+     * Lines break at the last space that fits; a word longer than a whole
+     * line is split. A line width of 0 disables wrapping.
+     * @param out The buffer to append to.
+     * @param sentence The sentence.
+     * @param lineWidth Characters per line.
+     * @param boxed Whether each line is drawn inside the box.
+     */
+    private static void appendWrapped(StringBuilder out, String sentence, int lineWidth, boolean boxed) {
+        int length = sentence.length();
+        int start = 0;
+        while (start < length) {
+            int end = length;
+            int next = length;
+            if (lineWidth > 0 && length - start > lineWidth) {
+                end = sentence.lastIndexOf(' ', start + lineWidth);
+                if (end <= start) {
+                    end = start + lineWidth;
+                    next = end;
+                } else {
+                    next = end + 1;
+                }
+            }
+            if (boxed) {
+                appendBoxLine(out, sentence, start, end, lineWidth);
+            } else {
+                out.append(sentence, start, end).append(NEW_LINE);
+            }
+            start = next;
+        }
+    }
+
+    /**
+     * Appends one line of the box, padding the text to the line width.
+     * @param out The buffer to append to.
+     * @param text Text containing the line.
+     * @param start Index of the first character of the line.
+     * @param end Index after the last character of the line.
+     * @param lineWidth Characters per line.
+     */
+    private static void appendBoxLine(StringBuilder out, String text, int start, int end, int lineWidth) {
+        out.append("| ").append(text, start, end);
+        for (int i = end - start; i < lineWidth; i++) {
+            out.append(' ');
+        }
+        out.append(" |").append(NEW_LINE);
+    }
+
+    /**
+     * Appends the top or bottom border of the box.
+     * @param out The buffer to append to.
+     * @param lineWidth Characters per line.
+     */
+    private static void appendBorder(StringBuilder out, int lineWidth) {
+        out.append('+');
+        for (int i = 0; i < lineWidth + 2; i++) {
+            out.append('-');
+        }
+        out.append('+').append(NEW_LINE);
+    }
+
+    /**
+     * Appends a quoted, escaped JSON string.
+     * @param out The buffer to append to.
+     * @param text The text to quote.
+     */
+    protected static void appendJsonString(StringBuilder out, String text) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Appends text with HTML special characters escaped.
+     * @param out The buffer to append to.
+     * @param text The text to escape.
+     */
+    protected static void appendHtml(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,572 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * MadLibServer class serves Mad Libs over HTTP using the JDK's built-in server,
+ * handling every request on its own virtual thread.
+ * <ul>
+ *     <li>GET /generate?theme=&amp;sentences=&amp;blanks=&amp;seed=&amp;format= generates a Mad Lib.</li>
+ *     <li>GET or POST /fill?id=&amp;response=...&amp;format= fills the blanks of a generated
+ *     Mad Lib, identified by the session id returned from /generate, with the responses
+ *     in order. A spec= parameter with the Mad Lib's spec id can be given instead of id.</li>
+ *     <li>GET /stats answers the session store and pool counters as JSON.</li>
+ *     <li>GET /metrics answers the MadLibMetrics text snapshot, when metrics are enabled.</li>
+ *     <li>GET /health answers "ok".</li>
+ * </ul>
+ * Sessions hold only the spec of each Mad Lib, which is replayed when it is filled.
+ * A session whose templates were reloaded since it was generated can no longer be
+ * replayed, and /fill answers 410 Gone for it.
+ */
+public final class MadLibServer {
+    protected static final int DEFAULT_PORT = 8080;
+    protected static final int DEFAULT_MAX_SESSIONS = 1 << 20;
+    protected static final long DEFAULT_SESSION_TTL = 30 * 60;
+    protected static final int DEFAULT_POOL_DEPTH = 16;
+    private static final int POOLED_SENTENCES = 25;
+    private static final int MAX_SENTENCES = 1000;
+    private static final int MAX_FACTORIES = 1024;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final String USAGE = """
+            Usage: MainLoop --serve [options]
+              --port <n>             Port to listen on (default: 8080, 0 picks a free port)
+              --sessions <n>         Most pending Mad Libs kept for filling (default: 1048576)
+              --session-ttl <sec>    Seconds a Mad Lib can be filled after it is generated (default: 1800)
+              --pool-depth <n>       Ready-made Mad Libs kept per game combination, 0 for none (default: 16)
+              --words <dir>          Directory of extra theme word bank files
+              --templates <dir|file> Template files or compiled catalog, reloaded when they change
+              --help                 Show this message
+            """;
+
+    static {
+        // The JDK server writes headers and body separately; without TCP_NODELAY,
+        // Nagle's algorithm and delayed ACKs hold every keep-alive response for ~40 ms.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final MadLibSessionStore sessions;
+    private final MadLibPool pool;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<MadLibSpec, MadLibFactory> factories = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<MadLibSpec, MadLibFactory> eldest) {
+            return size() > MAX_FACTORIES;
+        }
+    };
+
+    /**
+     * Functional interface for request handlers that may reject a request.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Constructor for MadLibServer class.
+     * Binds the server to an address with the default session limits.
+     * @param address The address to listen on.
+     */
+    protected MadLibServer(InetSocketAddress address) throws IOException {
+        this(address, new MadLibSessionStore(DEFAULT_MAX_SESSIONS, DEFAULT_SESSION_TTL),
+                new MadLibPool(DEFAULT_POOL_DEPTH));
+    }
+
+    /**
+     * Constructor for MadLibServer class.
+     * Binds the server to an address; it does not accept requests until started.
+     * @param address The address to listen on.
+     * @param sessions The store holding generated Mad Libs until they are filled.
+     * @param pool Pool of ready-made Mad Libs for requests without a seed, or null for none.
+     *             The game's combinations are registered with it.
+     */
+    protected MadLibServer(InetSocketAddress address, MadLibSessionStore sessions, MadLibPool pool)
+            throws IOException {
+        this.sessions = sessions;
+        this.pool = pool;
+        if (pool != null) {
+            pool.registerGameCombinations(List.of("space", "western", "pirate", "all"), POOLED_SENTENCES);
+        }
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/generate", exchange -> handle(exchange, this::generate));
+        server.createContext("/fill", exchange -> handle(exchange, this::fill));
+        server.createContext("/stats", exchange -> handle(exchange,
+                e -> send(e, 200, "application/json", statsJson())));
+        server.createContext("/metrics", exchange -> handle(exchange, e -> {
+            if (!MadLibMetrics.ENABLED) {
+                throw new NoSuchElementException("Metrics are off; start with -Dmadlibs.metrics=true");
+            }
+            send(e, 200, "text/plain; charset=utf-8", MadLibMetrics.getInstance().getSnapshot());
+        }));
+        server.createContext("/health", exchange -> handle(exchange,
+                e -> send(e, 200, "text/plain; charset=utf-8", "ok")));
+    }
+
+    /**
+     * Runs the server with the given command-line arguments until the process is stopped.
+     * @param args Command-line flags, see USAGE.
+     * @return Process exit status: 1 if the server could not start, 2 on invalid arguments.
+     */
+    protected static int run(String[] args) {
+        int port = DEFAULT_PORT;
+        int maxSessions = DEFAULT_MAX_SESSIONS;
+        long sessionTtl = DEFAULT_SESSION_TTL;
+        int poolDepth = DEFAULT_POOL_DEPTH;
+        Path templates = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--help", "-h" -> {
+                        System.out.print(USAGE);
+                        return 0;
+                    }
+                    case "--port" -> port = parsePort(args, ++i);
+                    case "--sessions" -> maxSessions = BatchMode.parsePositive(valueOf(args, ++i), "--sessions");
+                    case "--session-ttl" -> sessionTtl = BatchMode.parsePositive(valueOf(args, ++i), "--session-ttl");
+                    case "--pool-depth" -> poolDepth = parseNonNegative(valueOf(args, ++i), "--pool-depth");
+                    case "--words" -> WordBankRegistry.useCatalog(Path.of(valueOf(args, ++i)),
+                            WordBankRegistry.DEFAULT_CACHE_SIZE);
+                    case "--templates" -> templates = Path.of(valueOf(args, ++i));
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            return 2;
+        }
+
+        MadLibServer madLibServer;
+        try {
+            if (templates != null) {
+                TemplateRegistry.useSource(templates, true);
+            }
+            madLibServer = new MadLibServer(new InetSocketAddress(port),
+                    new MadLibSessionStore(maxSessions, sessionTtl),
+                    poolDepth == 0 ? null : new MadLibPool(poolDepth));
+        } catch (IOException e) {
+            System.err.println("Could not start server: " + e.getMessage());
+            return 1;
+        }
+        madLibServer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(madLibServer::stop));
+        System.out.println("Serving Mad Libs on http://localhost:" + madLibServer.getPort());
+        return 0;
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    protected void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits briefly for open requests to finish.
+     */
+    protected void stop() {
+        server.stop(1);
+        executor.shutdown();
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the port the server listens on, useful when it was bound to port 0.
+     * @return The port.
+     */
+    protected int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Handles /generate: generates a Mad Lib from the request parameters.
+     * @param exchange The request and response.
+     */
+    private void generate(HttpExchange exchange) throws IOException {
+        Map<String, List<String>> parameters = parseParameters(exchange);
+        String theme = parameter(parameters, "theme", "all").toLowerCase();
+        if (!WordBankRegistry.hasTheme(theme)) {
+            throw new IllegalArgumentException("Theme not found: " + theme);
+        }
+        int sentenceCount = BatchMode.parsePositive(parameter(parameters, "sentences", "5"), "sentences");
+        if (sentenceCount > MAX_SENTENCES) {
+            throw new IllegalArgumentException("sentences must be at most " + MAX_SENTENCES);
+        }
+        double blankFrequency = BatchMode.parseBlankFrequency(parameter(parameters, "blanks", "some"));
+        String blankCountValue = parameter(parameters, "blankcount", null);
+        int blankCount = blankCountValue == null ? MadLibSpec.NO_BLANK_COUNT
+                : BatchMode.parseBlankCount(blankCountValue, "blankcount");
+        boolean noRepeat = Boolean.parseBoolean(parameter(parameters, "norepeat", "false"));
+        String seedValue = parameter(parameters, "seed", null);
+        long seed;
+        try {
+            seed = seedValue == null ? ThreadLocalRandom.current().nextLong() : Long.parseLong(seedValue);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("seed must be an integer: " + seedValue);
+        }
+
+        // Specs with a blank count ignore the frequency, and sessions do not keep it.
+        MadLibSpec spec = blankCount == MadLibSpec.NO_BLANK_COUNT
+                ? new MadLibSpec(theme, sentenceCount, blankFrequency, noRepeat, seed)
+                : new MadLibSpec(theme, sentenceCount, 0, blankCount, noRepeat, seed);
+        MadLib madLib = seedValue == null && pool != null ? pool.poll(spec) : null;
+        if (madLib == null) {
+            madLib = factoryFor(spec).generateMadLib(seed);
+        }
+        sendMadLib(exchange, parameters, madLib, sessions.put(madLib.getSpec(), madLib.getCatalogGeneration()));
+    }
+
+    /**
+     * Handles /fill: replays a Mad Lib from its id and fills its blanks with the responses.
+     * Answers 410 if the session's Mad Lib was generated from a template catalog that
+     * has since been reloaded, since the replay would put the responses in other blanks.
+     * @param exchange The request and response.
+     */
+    private void fill(HttpExchange exchange) throws IOException {
+        Map<String, List<String>> parameters = parseParameters(exchange);
+        String id = parameter(parameters, "id", null);
+        String specId = parameter(parameters, "spec", null);
+        MadLibSpec spec;
+        MadLibSessionStore.Session session = null;
+        if (id != null) {
+            session = sessions.get(id);
+            if (session == null) {
+                throw new NoSuchElementException("Mad Lib not found or expired: " + id);
+            }
+            spec = session.spec();
+        } else if (specId != null) {
+            spec = MadLibSpec.fromId(specId);
+            if (!WordBankRegistry.hasTheme(spec.theme())) {
+                throw new IllegalArgumentException("Theme not found: " + spec.theme());
+            }
+            if (spec.sentenceCount() > MAX_SENTENCES) {
+                throw new IllegalArgumentException("sentences must be at most " + MAX_SENTENCES);
+            }
+        } else {
+            throw new IllegalArgumentException("Missing parameter: id");
+        }
+        MadLibFactory madLibFactory = factoryFor(spec);
+        MadLib madLib = madLibFactory.generateMadLib(spec.seed());
+        if (session != null && !session.isFrom(madLib.getCatalogGeneration())) {
+            sendError(exchange, 410, "Mad Lib's templates were reloaded since it was generated: " + id);
+            return;
+        }
+        List<String> responses = parameters.getOrDefault("response", List.of());
+        sendMadLib(exchange, parameters, madLibFactory.fillBlanks(madLib, responses), id);
+    }
+
+    /**
+     * Returns a factory for a spec, sharing one per theme, length and blank frequency
+     * so the sentence templates are not rebuilt for every request. The most recently
+     * used factories are kept, so a flood of one-off specs only evicts the least
+     * recently used ones instead of every factory.
+     * @param spec The spec of the Mad Lib.
+     * @return A factory generating Mad Libs of that spec.
+     */
+    private MadLibFactory factoryFor(MadLibSpec spec) {
+        MadLibSpec key = spec.withSeed(0);
+        synchronized (factories) {
+            return factories.computeIfAbsent(key, MadLibFactory::new);
+        }
+    }
+
+    /**
+     * Sends a Mad Lib in the requested format: JSON with its id and blank positions
+     * by default, or plain, box or HTML text.
+     * @param exchange The request and response.
+     * @param parameters The request parameters.
+     * @param madLib The Mad Lib to send.
+     * @param id The session id of the Mad Lib, or null if it has none.
+     */
+    private static void sendMadLib(HttpExchange exchange, Map<String, List<String>> parameters,
+                                   MadLib madLib, String id) throws IOException {
+        String format = parameter(parameters, "format", "json").toLowerCase();
+        switch (format) {
+            case "json" -> send(exchange, 200, "application/json", toJson(madLib, id));
+            case "html" -> send(exchange, 200, "text/html; charset=utf-8",
+                    new MadLibRenderer(MadLibRenderer.Format.HTML, 0).render(madLib));
+            case "plain", "box" -> {
+                int width = BatchMode.parsePositive(parameter(parameters, "width",
+                        String.valueOf(MadLibRenderer.DEFAULT_WIDTH)), "width");
+                MadLibRenderer.Format textFormat = format.equals("box") ?
+                        MadLibRenderer.Format.BOX : MadLibRenderer.Format.PLAIN;
+                send(exchange, 200, "text/plain; charset=utf-8",
+                        new MadLibRenderer(textFormat, width).render(madLib));
+            }
+            default -> throw new IllegalArgumentException("format must be json, plain, box or html: " + format);
+        }
+    }
+
+    /**
+     * Converts the session store and pool counters, and the memory estimates
+     * of the sessions and word banks, to a JSON object.
+     * @return The JSON text.
+     */
+    private String statsJson() {
+        MadLibSessionStore.Stats sessionStats = sessions.getStats();
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"sessions\":{\"puts\":").append(sessionStats.puts())
+                .append(",\"hits\":").append(sessionStats.hits())
+                .append(",\"misses\":").append(sessionStats.misses())
+                .append(",\"expired\":").append(sessionStats.expired())
+                .append(",\"capacity\":").append(sessionStats.capacity())
+                .append(",\"bytes\":").append(sessions.estimateBytes()).append('}');
+        if (pool != null) {
+            MadLibPool.Stats poolStats = pool.getStats();
+            json.append(",\"pool\":{\"combinations\":").append(poolStats.combinations())
+                    .append(",\"queued\":").append(poolStats.queued())
+                    .append(",\"capacity\":").append(poolStats.capacity())
+                    .append(",\"fillLevel\":").append(poolStats.fillLevel())
+                    .append(",\"hits\":").append(poolStats.hits())
+                    .append(",\"misses\":").append(poolStats.misses())
+                    .append(",\"stale\":").append(poolStats.stale())
+                    .append(",\"produced\":").append(poolStats.produced())
+                    .append(",\"refills\":").append(poolStats.refills())
+                    .append(",\"totalRefillNanos\":").append(poolStats.totalRefillNanos())
+                    .append(",\"maxRefillNanos\":").append(poolStats.maxRefillNanos()).append('}');
+        }
+        json.append(",\"wordBanks\":{");
+        for (Map.Entry<String, WordBankRegistry.MemoryUsage> entry : WordBankRegistry.getMemoryUsage().entrySet()) {
+            WordBankRegistry.MemoryUsage usage = entry.getValue();
+            MadLibRenderer.appendJsonString(json, entry.getKey());
+            json.append(":{\"words\":").append(usage.words())
+                    .append(",\"indexBytes\":").append(usage.indexBytes())
+                    .append(",\"wordBytes\":").append(usage.wordBytes()).append("},");
+        }
+        json.append("\"pool\":{\"words\":").append(WordStore.getPoolSize())
+                .append(",\"bytes\":").append(WordStore.estimatePoolBytes()).append("}}");
+        return json.append('}').toString();
+    }
+
+    /**
+     * Converts a Mad Lib to a JSON object with its ids, sentences and blank positions.
+     * @param madLib The Mad Lib to convert.
+     * @param id The session id of the Mad Lib, or null if it has none.
+     * @return The JSON text.
+     */
+    private static String toJson(MadLib madLib, String id) {
+        StringBuilder json = new StringBuilder(256);
+        json.append('{');
+        if (id != null) {
+            json.append("\"id\":");
+            MadLibRenderer.appendJsonString(json, id);
+            json.append(',');
+        }
+        json.append("\"spec\":");
+        MadLibRenderer.appendJsonString(json, madLib.getSpec().toId());
+        json.append(",\"theme\":");
+        MadLibRenderer.appendJsonString(json, madLib.getTheme());
+        json.append(",\"seed\":").append(madLib.getSeed()).append(",\"sentences\":[");
+        List<String> sentences = madLib.getSentences();
+        for (int i = 0; i < sentences.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            MadLibRenderer.appendJsonString(json, sentences.get(i));
+        }
+        json.append("],\"blanks\":[");
+        List<BlankSpan> blanks = madLib.getBlanks();
+        for (int i = 0; i < blanks.size(); i++) {
+            BlankSpan blank = blanks.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"sentence\":").append(blank.sentence())
+                    .append(",\"offset\":").append(blank.offset())
+                    .append(",\"length\":").append(blank.length())
+                    .append(",\"type\":\"").append(blank.wordType()).append('"');
+            if (blank.isReference()) {
+                json.append(",\"sameAs\":").append(blank.sameAs());
+            }
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Runs a handler, answering 400 for rejected requests, 404 for unknown
+     * Mad Libs and 500 for failures.
+     * @param exchange The request and response.
+     * @param handler The handler of the request.
+     */
+    private static void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "GET, POST");
+                sendError(exchange, 405, "Method not allowed: " + method);
+                return;
+            }
+            handler.handle(exchange);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (NoSuchElementException e) {
+            sendError(exchange, 404, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Internal error handling " + exchange.getRequestMethod() + " " +
+                    exchange.getRequestURI());
+            e.printStackTrace();
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Sends an error response as a JSON object.
+     * @param exchange The request and response.
+     * @param status The HTTP status code.
+     * @param message The error message.
+     */
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        MadLibRenderer.appendJsonString(json, message);
+        send(exchange, status, "application/json", json.append('}').toString());
+    }
+
+    /**
+     * Sends a response with a fixed length body in one write.
+     * @param exchange The request and response.
+     * @param status The HTTP status code.
+     * @param contentType The content type of the body.
+     * @param body The response body.
+     */
+    private static void send(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Parses the query string and, for POST requests, a form-encoded body.
+     * @param exchange The request.
+     * @return The values of each parameter, in request order.
+     */
+    private static Map<String, List<String>> parseParameters(HttpExchange exchange) throws IOException {
+        Map<String, List<String>> parameters = new HashMap<>();
+        parseQuery(exchange.getRequestURI().getRawQuery(), parameters);
+        if (exchange.getRequestMethod().equals("POST")) {
+            try (InputStream body = exchange.getRequestBody()) {
+                byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+                if (bytes.length > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Request body too large");
+                }
+                parseQuery(new String(bytes, StandardCharsets.UTF_8), parameters);
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Parses form-encoded name=value pairs into a parameter map.
+     * @param query The encoded pairs, or null.
+     * @param parameters The map the values are added to.
+     */
+    private static void parseQuery(String query, Map<String, List<String>> parameters) {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            String name = decode(equals < 0 ? pair : pair.substring(0, equals));
+            String value = equals < 0 ? "" : decode(pair.substring(equals + 1));
+            parameters.computeIfAbsent(name, n -> new ArrayList<>()).add(value);
+        }
+    }
+
+    /**
+     * Decodes a form-encoded string.
+     * @param value The encoded string.
+     * @return The decoded string.
+     */
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the first value of a parameter.
+     * @param parameters The request parameters.
+     * @param name The parameter name.
+     * @param defaultValue Value returned when the parameter is missing.
+     * @return The parameter value.
+     */
+    private static String parameter(Map<String, List<String>> parameters, String name, String defaultValue) {
+        List<String> values = parameters.get(name);
+        return values == null ? defaultValue : values.getFirst();
+    }
+
+    /**
+     * Returns the value following a flag.
+     * @param args Command-line flags.
+     * @param index Index of the value.
+     * @return The flag's value.
+     */
+    private static String valueOf(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    /**
+     * Parses a number that may be zero.
+     * @param value The number given on the command line.
+     * @param flag The flag the number belongs to.
+     * @return The parsed number.
+     */
+    private static int parseNonNegative(String value, String flag) {
+        return value.equals("0") ? 0 : BatchMode.parsePositive(value, flag);
+    }
+
+    /**
+     * Parses the port following the --port flag.
+     * @param args Command-line flags.
+     * @param index Index of the port.
+     * @return The port.
+     */
+    private static int parsePort(String[] args, int index) {
+        String value = valueOf(args, index);
+        try {
+            int port = Integer.parseInt(value);
+            if (port >= 0 && port <= 65535) {
+                return port;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException("--port must be between 0 and 65535: " + value);
+    }
+}
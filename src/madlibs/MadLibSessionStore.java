@@ -0,0 +1,272 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MadLibSessionStore class keeps the Mad Libs handed out by the server between
+ * generating them and filling them in, keyed by an opaque session id.
+ * <p>
+ * A session is stored as its spec packed into five longs rather than as text,
+ * since the Mad Lib and its blanks can be regenerated from the spec at any time
+ * while the template catalog it was generated from is current. That catalog's
+ * generation is kept with the spec, so a lookup can tell when the templates
+ * have since been reloaded.
+ * Sessions live in per-segment ring buffers: a new session takes the slot of
+ * the oldest one once a segment is full, which bounds memory, and a session
+ * older than the time to live is no longer returned. The id names the ring slot
+ * directly, so lookups need no hash table, and carries a random tag that must
+ * match the slot, so ids cannot be guessed and overwritten slots are not confused.
+ */
+public final class MadLibSessionStore {
+    private static final int SEGMENTS = 16;
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int FIELDS = 5;
+    private static final int TAG = 0;
+    private static final int SEED = 1;
+    private static final int PARAMS = 2;
+    private static final int BLANKS = 3;
+    private static final int SOURCE = 4;
+    private static final int MAX_SENTENCES = (1 << 10) - 1;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int segmentCapacity;
+    private final long ttlSeconds;
+    private final long startNanos = System.nanoTime();
+    private final List<String> themes = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> themeIndexes = new ConcurrentHashMap<>();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * Stats record is a snapshot of the store counters.
+     * @param puts Sessions stored.
+     * @param hits Lookups that found a live session.
+     * @param misses Lookups of unknown or overwritten sessions.
+     * @param expired Lookups of sessions older than the time to live.
+     * @param capacity The most sessions kept at once.
+     */
+    protected record Stats(long puts, long hits, long misses, long expired, long capacity) {
+    }
+
+    /**
+     * Session record is a stored session.
+     * @param spec The spec of the session's Mad Lib.
+     * @param catalogGeneration Generation of the template catalog the Mad Lib was generated from.
+     */
+    protected record Session(MadLibSpec spec, int catalogGeneration) {
+        /**
+         * Checks whether the session's Mad Lib was generated from a template catalog.
+         * @param generation The generation of the catalog.
+         * @return True if the stored generation matches the catalog's.
+         */
+        protected boolean isFrom(int generation) {
+            return generation == catalogGeneration;
+        }
+    }
+
+    /**
+     * Segment class is one ring buffer of sessions, guarded by its own lock.
+     * Slots are allocated in chunks as the ring first fills up.
+     */
+    private static final class Segment {
+        private final long[][] chunks;
+        private long sequence;
+
+        /**
+         * Constructor for Segment class.
+         * @param capacity Number of slots, a multiple of the chunk size.
+         */
+        private Segment(int capacity) {
+            chunks = new long[capacity >>> CHUNK_BITS][];
+        }
+    }
+
+    /**
+     * Constructor for MadLibSessionStore class.
+     * @param maxSessions The most sessions kept at once, rounded up to fill whole chunks.
+     * @param ttlSeconds How long a session can be looked up after it is stored.
+     */
+    protected MadLibSessionStore(int maxSessions, long ttlSeconds) {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("Session count must be at least 1: " + maxSessions);
+        }
+        if (ttlSeconds < 1 || ttlSeconds > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Session time to live must be at least 1 second: " + ttlSeconds);
+        }
+        int chunksPerSegment = Math.max(1, (maxSessions / SEGMENTS + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+        this.segmentCapacity = chunksPerSegment << CHUNK_BITS;
+        this.ttlSeconds = ttlSeconds;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * Stores a session and returns its id.
+     * @param spec The spec of the session's Mad Lib.
+     * @param catalogGeneration Generation of the template catalog the Mad Lib was generated from.
+     * @return The session id.
+     */
+    protected String put(MadLibSpec spec, int catalogGeneration) {
+        if (spec.sentenceCount() > MAX_SENTENCES) {
+            throw new IllegalArgumentException("Sessions hold at most " + MAX_SENTENCES + " sentences");
+        }
+        int themeIndex = themeIndex(spec.theme());
+        long params = (long) spec.sentenceCount() << 33 |
+                (spec.noRepeatTemplates() ? 1L << 32 : 0) | (now() + ttlSeconds);
+        long tag = ThreadLocalRandom.current().nextLong();
+        int segmentIndex = ThreadLocalRandom.current().nextInt(SEGMENTS);
+        Segment segment = segments[segmentIndex];
+        long sequence;
+        synchronized (segment) {
+            sequence = segment.sequence++;
+            int slot = (int) (sequence % segmentCapacity);
+            long[] chunk = segment.chunks[slot >>> CHUNK_BITS];
+            if (chunk == null) {
+                chunk = new long[CHUNK_SIZE * FIELDS];
+                segment.chunks[slot >>> CHUNK_BITS] = chunk;
+            }
+            int base = (slot & (CHUNK_SIZE - 1)) * FIELDS;
+            chunk[base + TAG] = tag;
+            chunk[base + SEED] = spec.seed();
+            chunk[base + PARAMS] = params;
+            chunk[base + BLANKS] = packBlanks(spec);
+            chunk[base + SOURCE] = (long) catalogGeneration << 32 | themeIndex;
+        }
+        puts.increment();
+        return Long.toUnsignedString(sequence * SEGMENTS + segmentIndex, 36) + '.' +
+                Long.toUnsignedString(tag, 36);
+    }
+
+    /**
+     * Looks up a session.
+     * @param id The session id returned by put().
+     * @return The session, or null if the session is unknown, was overwritten
+     * by newer sessions, or has expired.
+     */
+    protected Session get(String id) {
+        int dot = id.indexOf('.');
+        long position;
+        long tag;
+        try {
+            position = Long.parseUnsignedLong(id, 0, dot, 36);
+            tag = Long.parseUnsignedLong(id, dot + 1, id.length(), 36);
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            misses.increment();
+            return null;
+        }
+        Segment segment = segments[(int) Long.remainderUnsigned(position, SEGMENTS)];
+        long sequence = Long.divideUnsigned(position, SEGMENTS);
+        long seed;
+        long params;
+        long blanks;
+        long source;
+        synchronized (segment) {
+            if (Long.compareUnsigned(sequence, segment.sequence) >= 0 ||
+                    segment.sequence - sequence > segmentCapacity) {
+                misses.increment();
+                return null;
+            }
+            int slot = (int) (sequence % segmentCapacity);
+            long[] chunk = segment.chunks[slot >>> CHUNK_BITS];
+            int base = (slot & (CHUNK_SIZE - 1)) * FIELDS;
+            if (chunk[base + TAG] != tag) {
+                misses.increment();
+                return null;
+            }
+            seed = chunk[base + SEED];
+            params = chunk[base + PARAMS];
+            blanks = chunk[base + BLANKS];
+            source = chunk[base + SOURCE];
+        }
+        if ((params & 0xFFFFFFFFL) < now()) {
+            expired.increment();
+            return null;
+        }
+        hits.increment();
+        MadLibSpec spec = new MadLibSpec(themes.get((int) source), (int) (params >>> 33 & MAX_SENTENCES),
+                blanks < 0 ? 0 : Double.longBitsToDouble(blanks),
+                blanks < 0 ? (int) blanks : MadLibSpec.NO_BLANK_COUNT, (params & 1L << 32) != 0, seed);
+        return new Session(spec, (int) (source >>> 32));
+    }
+
+    /**
+     * Returns a snapshot of the store counters.
+     * @return The current stats.
+     */
+    protected Stats getStats() {
+        return new Stats(puts.sum(), hits.sum(), misses.sum(), expired.sum(),
+                (long) segmentCapacity * SEGMENTS);
+    }
+
+    /**
+     * Estimates the heap used by the session slots allocated so far.
+     * @return The estimated number of bytes.
+     */
+    protected long estimateBytes() {
+        long chunkCount = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (long[] chunk : segment.chunks) {
+                    if (chunk != null) {
+                        chunkCount++;
+                    }
+                }
+            }
+        }
+        return chunkCount * (16 + (long) CHUNK_SIZE * FIELDS * Long.BYTES);
+    }
+
+    /**
+     * Returns the index of a theme in the theme table, adding it if needed.
+     * Themes are few, so sessions store an index instead of the name. The
+     * index has half a field of its own, so the table never runs out; the server
+     * only stores themes that exist, which bounds its size.
+     * @param theme The theme.
+     * @return The theme's index.
+     */
+    private int themeIndex(String theme) {
+        Integer index = themeIndexes.get(theme);
+        if (index != null) {
+            return index;
+        }
+        synchronized (themes) {
+            return themeIndexes.computeIfAbsent(theme, key -> {
+                themes.add(key);
+                return themes.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Returns the store's clock: whole seconds since it was created.
+     * @return The current time in seconds.
+     */
+    private long now() {
+        return (System.nanoTime() - startNanos) / 1_000_000_000L;
+    }
+
+    /**
+     * Packs the blank settings of a spec into one long. A blank frequency is
+     * stored as its bits, which never have the sign bit set since the frequency
+     * is not negative; a blank count is stored in the low bits with the sign bit
+     * set. Specs with a blank count ignore the blank frequency, so it is not kept
+     * and comes back as 0.
+     * @param spec The spec.
+     * @return The packed blank settings.
+     */
+    private static long packBlanks(MadLibSpec spec) {
+        return spec.hasBlankCount() ? Long.MIN_VALUE | spec.blankCount()
+                : Double.doubleToRawLongBits(spec.blankFrequency() + 0.0);
+    }
+}
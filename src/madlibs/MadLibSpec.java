@@ -0,0 +1,92 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.regex.Pattern;
+
+/**
+ * MadLibSpec record holds everything needed to regenerate a Mad Lib.
+ * Generation is deterministic, so a Mad Lib can be stored as its spec
+ * and replayed on demand instead of keeping its full text.
+ * @param theme The theme for the Mad Lib.
+ * @param sentenceCount The number of sentences in the Mad Lib.
+ * @param blankFrequency The amount of blank spaces in the Mad Lib.
+ * @param blankCount The exact number of blank spaces in the Mad Lib, or NO_BLANK_COUNT to
+ *                   leave each slot blank with the blank frequency.
+ * @param noRepeatTemplates Whether each template is used at most once per Mad Lib.
+ * @param seed The seed every random choice in the Mad Lib is derived from.
+ */
+public record MadLibSpec(String theme, int sentenceCount, double blankFrequency, int blankCount,
+                         boolean noRepeatTemplates, long seed) {
+    protected static final int NO_BLANK_COUNT = -1;
+    private static final char ID_SEPARATOR = '~';
+    private static final Pattern ID_FIELDS = Pattern.compile(String.valueOf(ID_SEPARATOR));
+
+    /**
+     * Constructor for MadLibSpec record, for Mad Libs whose blanks follow the blank frequency.
+     * @param theme The theme for the Mad Lib.
+     * @param sentenceCount The number of sentences in the Mad Lib.
+     * @param blankFrequency The amount of blank spaces in the Mad Lib.
+     * @param noRepeatTemplates Whether each template is used at most once per Mad Lib.
+     * @param seed The seed every random choice in the Mad Lib is derived from.
+     */
+    public MadLibSpec(String theme, int sentenceCount, double blankFrequency, boolean noRepeatTemplates,
+                      long seed) {
+        this(theme, sentenceCount, blankFrequency, NO_BLANK_COUNT, noRepeatTemplates, seed);
+    }
+
+    /**
+     * Checks whether the Mad Lib has an exact number of blanks, planned up front.
+     * @return True if blankCount is set.
+     */
+    protected boolean hasBlankCount() {
+        return blankCount != NO_BLANK_COUNT;
+    }
+
+    /**
+     * Returns a copy of the spec with a different seed.
+     * @param seed The new seed.
+     * @return Spec with the given seed.
+     */
+    protected MadLibSpec withSeed(long seed) {
+        return new MadLibSpec(theme, sentenceCount, blankFrequency, blankCount, noRepeatTemplates, seed);
+    }
+
+    /**
+     * Returns an identifier of the spec that is safe to use in URLs.
+     * Passing it to fromId() gives back an equal spec. The blank count is
+     * appended only when set, so ids of other specs are unchanged.
+     * @return The spec identifier.
+     */
+    protected String toId() {
+        String id = theme + ID_SEPARATOR + sentenceCount + ID_SEPARATOR + blankFrequency +
+                ID_SEPARATOR + (noRepeatTemplates ? 1 : 0) + ID_SEPARATOR + seed;
+        return hasBlankCount() ? id + ID_SEPARATOR + blankCount : id;
+    }
+
+    /**
+     * Parses a spec identifier created by toId().
+     * @param id The spec identifier.
+     * @return The spec.
+     */
+    protected static MadLibSpec fromId(String id) {
+        String[] fields = ID_FIELDS.split(id, -1);
+        if (fields.length < 5 || fields.length > 6 || fields[0].isEmpty()) {
+            throw new IllegalArgumentException("Invalid Mad Lib id: " + id);
+        }
+        try {
+            int sentenceCount = Integer.parseInt(fields[1]);
+            double blankFrequency = Double.parseDouble(fields[2]);
+            int blankCount = fields.length == 6 ? Integer.parseInt(fields[5]) : NO_BLANK_COUNT;
+            if (sentenceCount < 1 || !(blankFrequency >= 0 && blankFrequency <= 1) ||
+                    (fields.length == 6 && blankCount < 0) ||
+                    !(fields[3].equals("0") || fields[3].equals("1"))) {
+                throw new IllegalArgumentException("Invalid Mad Lib id: " + id);
+            }
+            return new MadLibSpec(fields[0], sentenceCount, blankFrequency, blankCount, fields[3].equals("1"),
+                    Long.parseLong(fields[4]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid Mad Lib id: " + id);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MadLibWriter class writes Mad Libs one sentence at a time, so a Mad Lib
+ * never has to be held in memory to be printed. Each step is rendered by a
+ * MadLibRenderer into a reused buffer and copied to the writer.
+ */
+public class MadLibWriter implements Flushable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer out;
+    private final MadLibRenderer renderer;
+    private final int lineWidth;
+    private final StringBuilder buffer = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private int sentenceIndex;
+
+    /**
+     * Constructor for MadLibWriter class.
+     * Sentence lengths are not known up front, so a renderer fitted to the
+     * longest sentence uses MadLibRenderer.DEFAULT_WIDTH instead.
+     * @param out The writer to write to. It is not buffered any further.
+     * @param renderer The renderer formatting the Mad Libs.
+     */
+    protected MadLibWriter(Writer out, MadLibRenderer renderer) {
+        this.out = out;
+        this.renderer = renderer;
+        this.lineWidth = renderer.getWidth() > 0 ? renderer.getWidth() : MadLibRenderer.DEFAULT_WIDTH;
+    }
+
+    /**
+     * Constructor for MadLibWriter class.
+     * Writes UTF-8 text to an output stream through a buffer.
+     * @param out The stream to write to.
+     * @param renderer The renderer formatting the Mad Libs.
+     */
+    protected MadLibWriter(OutputStream out, MadLibRenderer renderer) {
+        this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE), renderer);
+    }
+
+    /**
+     * Constructor for MadLibWriter class.
+     * Writes UTF-8 text to a channel through a buffer.
+     * @param channel The channel to write to.
+     * @param renderer The renderer formatting the Mad Libs.
+     */
+    protected MadLibWriter(WritableByteChannel channel, MadLibRenderer renderer) {
+        this(new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE), renderer);
+    }
+
+    /**
+     * Writes what comes before the first sentence of a Mad Lib.
+     * @param spec The spec of the Mad Lib.
+     */
+    protected void beginMadLib(MadLibSpec spec) throws IOException {
+        renderer.appendHeader(buffer, spec, lineWidth);
+        sentenceIndex = 0;
+        writeBuffer();
+    }
+
+    /**
+     * Writes one sentence of the current Mad Lib.
+     * @param sentence The sentence to write.
+     */
+    protected void writeSentence(String sentence) throws IOException {
+        renderer.appendSentence(buffer, sentence, sentenceIndex++, lineWidth);
+        writeBuffer();
+    }
+
+    /**
+     * Writes what comes after the last sentence of the current Mad Lib.
+     */
+    protected void endMadLib() throws IOException {
+        renderer.appendFooter(buffer, lineWidth);
+        writeBuffer();
+    }
+
+    /**
+     * Writes a whole Mad Lib. Unlike a streamed Mad Lib, its sentences are
+     * known, so a renderer fitted to the longest sentence keeps that width.
+     * @param madLib The Mad Lib to write.
+     */
+    protected void writeMadLib(MadLib madLib) throws IOException {
+        renderer.render(madLib, buffer);
+        writeBuffer();
+    }
+
+    /**
+     * Flushes buffered text to the underlying stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Copies the rendered text to the writer and clears the buffer.
+     */
+    private void writeBuffer() throws IOException {
+        int length = buffer.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        buffer.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        buffer.setLength(0);
+    }
+}
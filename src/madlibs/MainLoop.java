@@ -1,6 +1,9 @@
 // By: Landon Prince (5/4/2024)
 
+package madlibs;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Scanner;
 import java.util.List;
 
@@ -15,10 +18,26 @@ public class MainLoop {
 
     /**
      * The main method, entry point of the program.
-     * It initializes the game and starts the launcher.
-     * @param args Command-line arguments (not used).
+     * It initializes the game and starts the launcher, starts the HTTP server
+     * when the first argument is --serve, or runs batch mode without prompts
+     * when other command-line arguments are given.
+     * @param args Command-line arguments, see BatchMode and MadLibServer.
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            int status = MadLibServer.run(Arrays.copyOfRange(args, 1, args.length));
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
+        if (args.length > 0) {
+            int status = BatchMode.run(args);
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
         startLauncher();
     }
 
@@ -109,7 +128,7 @@ public class MainLoop {
 
         loadingText(3, "Generating Mad Lib template");
         madLibFactory = new MadLibFactory(theme, sentenceCount, blankFrequency);
-        List<String> madLib = madLibFactory.generateMadLib();
+        MadLib madLib = madLibFactory.generateMadLib();
         System.out.println("Mad Lib template successfully generated!\n");
 
         while (true) {
@@ -131,13 +150,13 @@ public class MainLoop {
             }
         }
 
-        List<String> responses = getResponses(scanner);
+        List<String> responses = getResponses(scanner, madLib);
         System.out.println("""
 
                 Great picks! I will now insert your words into the Mad Lib template!
                 """);
         loadingText(3, "Completing Mad Lib");
-        List<String> filledMadLib = madLibFactory.fillBlanks(madLib, responses);
+        MadLib filledMadLib = madLibFactory.fillBlanks(madLib, responses);
         System.out.println("Mad Lib successfully completed!\n");
 
         while (true) {
@@ -169,11 +188,12 @@ public class MainLoop {
     /**
      * Gathers word responses from user used to fill blanks
      * @param scanner Scanner object for user input.
+     * @param madLib The Mad Lib whose blank spaces are being filled.
      */
-    private static List<String> getResponses(Scanner scanner) {
+    private static List<String> getResponses(Scanner scanner, MadLib madLib) {
         int count = 0;
         List<String> responses = new ArrayList<>();
-        List<String> wordTypes = madLibFactory.getWordTypes();
+        List<String> wordTypes = madLib.getWordTypes();
         int numBlanks = wordTypes.size();
         System.out.println("I will now ask you to fill in " + numBlanks + " blank spaces " +
                 "to complete the story.");
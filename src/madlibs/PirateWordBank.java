@@ -1,5 +1,7 @@
 // By: Landon Prince (5/4/2024)
 
+package madlibs;
+
 import java.util.List;
 import java.util.Arrays;
 
@@ -13,10 +15,10 @@ public class PirateWordBank extends WordBank {
      * Calls the superclass constructor to initialize the word bank.
      */
     protected PirateWordBank() {
-        fillBank();
+        super();
     }
     /**
-     * Fills the pirate-themed word bank with nouns, verbs, adjectives, and adverbs related to pirate.
+     * Fills the pirate-themed word bank with nouns, verbs, adjectives, adverbs, names and places related to pirate.
      */
     @Override
     protected void fillBank() {
@@ -83,5 +85,17 @@ public class PirateWordBank extends WordBank {
                 "thoughtfully", "tightly", "truly", "typically", "unhappily", "usually", "viciously", "warmly",
                 "wearily", "wildly", "wisely", "yearningly", "zealously"
         ));
+        List<String> names = getNames();
+        names.addAll(Arrays.asList(
+                "Anne Bonny", "Black Bart", "Blackbeard", "Calico Jack", "Captain Flint", "Captain Kidd", "Davy Jones",
+                "Grace O'Malley", "Henry Morgan", "Jack Rackham", "Long John Silver", "Mary Read", "Redbeard",
+                "Salty Pete", "Stede Bonnet", "Peg-Leg Meg", "One-Eyed Willy", "Barnacle Bill"
+        ));
+        List<String> places = getPlaces();
+        places.addAll(Arrays.asList(
+                "Tortuga", "Port Royal", "Nassau", "the Spanish Main", "Skull Island", "Davy Jones' Locker",
+                "the Caribbean", "Treasure Island", "Shipwreck Cove", "the Barbary Coast", "the crow's nest",
+                "the Bermuda Triangle", "Cape Horn", "the Sargasso Sea", "Madagascar", "the captain's quarters"
+        ));
     }
 }
@@ -0,0 +1,333 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * SentenceFactory class generates sentences based on provided theme
+ * and blank frequency. Templates come from the catalog published by the
+ * TemplateRegistry; each Mad Lib draws from one catalog snapshot through
+ * a Round, so a reload never changes templates under a Mad Lib being built.
+ */
+public class SentenceFactory {
+    private final String theme;
+    private final boolean anyTheme;
+    private final double blankFrequency;
+    private volatile TemplateSet templates;
+
+    /**
+     * Constructor for SentenceFactory class.
+     * Initializes the theme/blank frequency and builds templates.
+     * @param theme The theme for the sentences.
+     * @param blankFrequency The blank frequency for the sentences
+     */
+    protected SentenceFactory(String theme, double blankFrequency) {
+        this.theme = theme;
+        this.anyTheme = theme.equalsIgnoreCase("all");
+        this.blankFrequency = blankFrequency;
+        buildTemplates();
+    }
+
+    /**
+     * Generates a sentence based on a provided word bank.
+     * @param wordBank The word bank containing words for the sentence.
+     * @param random The random stream every choice in the sentence is drawn from.
+     * @return A String representing the generated sentence.
+     */
+    protected String buildSentence(WordBank wordBank, RandomGenerator random) {
+        return buildSentence(wordBank, random, null, -1, null);
+    }
+
+    /**
+     * Generates a sentence and records the position of each of its blank spaces.
+     * The template, blank spaces and words are all drawn from the given stream,
+     * so the same stream state always produces the same sentence. If the round
+     * has a blank plan, the sentences of the round must be built in order.
+     * @param wordBank The word bank containing words for the sentence.
+     * @param random The random stream every choice in the sentence is drawn from.
+     * @param round The template round of the Mad Lib, or null to select freely from the current catalog.
+     * @param sentenceIndex Index of the sentence within the Mad Lib.
+     * @param blanks List the sentence's blank spans are appended to, or null to skip recording them.
+     * @return A String representing the generated sentence.
+     */
+    protected String buildSentence(WordBank wordBank, RandomGenerator random, Round round,
+                                   int sentenceIndex, List<BlankSpan> blanks) {
+        if (round == null) {
+            round = new Round(currentTemplates(), null);
+        }
+        int templateIndex = selectTemplate(random, round);
+        return buildSentence(wordBank, random, round, templateIndex, round.planBlanks(templateIndex),
+                sentenceIndex, blanks);
+    }
+
+    /**
+     * Generates a sentence from an already selected template.
+     * Used when templates and blanks are chosen up front and sentences are rendered in parallel.
+     * @param wordBank The word bank containing words for the sentence.
+     * @param random The random stream the blanks and words are drawn from.
+     * @param round The template round the template was selected from.
+     * @param templateIndex Index of the template, as returned by selectTemplate().
+     * @param plannedBlanks The sentence's blank slots, as returned by Round.planBlanks(),
+     *                      or null to blank slots at random.
+     * @param sentenceIndex Index of the sentence within the Mad Lib.
+     * @param blanks List the sentence's blank spans are appended to, or null to skip recording them.
+     * @return A String representing the generated sentence.
+     */
+    protected String buildSentence(WordBank wordBank, RandomGenerator random, Round round, int templateIndex,
+                                   BitSet plannedBlanks, int sentenceIndex, List<BlankSpan> blanks) {
+        return renderSentence(round.get(templateIndex), templateIndex, plannedBlanks, wordBank, random,
+                sentenceIndex, blanks);
+    }
+
+    /**
+     * Selects the template of a sentence.
+     * @param random The random stream of the sentence.
+     * @param round The template round of the Mad Lib.
+     * @return Index of the selected template within the round's catalog snapshot.
+     */
+    protected int selectTemplate(RandomGenerator random, Round round) {
+        MadLibEvents.TemplateChosen event = null;
+        if (MadLibEvents.TEMPLATE_CHOSEN.isEnabled()) {
+            event = new MadLibEvents.TemplateChosen();
+            event.begin();
+        }
+        int templateIndex = round.next(random);
+        if (event != null && event.shouldCommit()) {
+            event.theme = theme;
+            event.templateIndex = templateIndex;
+            event.slots = round.get(templateIndex).getSlotCount();
+            event.commit();
+        }
+        return templateIndex;
+    }
+
+    /**
+     * Starts a round of template selections for one Mad Lib, drawing from
+     * the current catalog for as long as the round is used.
+     * @param noRepeats Whether templates are not repeated until every one has been used.
+     * @return A new template round.
+     */
+    protected Round newTemplateRound(boolean noRepeats) {
+        TemplateSet set = currentTemplates();
+        return new Round(set, noRepeats ? set.templates().getSelector().newRound() : null);
+    }
+
+    /**
+     * Renders a compiled template, filling or blanking each word slot.
+     * Slots are blanked as planned, or with the blank frequency when there is no plan.
+     * Drawn words are put in the form the template marks for the slot, and
+     * the article in front of a slot is picked for the word, both with
+     * table lookups; blanks keep "a" until their response is known.
+     * @param template The template to render.
+     * @param templateIndex Index of the template, for events.
+     * @param plannedBlanks The sentence's planned blank slots, or null to blank slots at random.
+     * @param wordBank The word bank containing words for the sentence.
+     * @param random The random stream the blanks and words are drawn from.
+     * @param sentenceIndex Index of the sentence within the Mad Lib.
+     * @param blanks List blank spans are appended to, or null to skip recording them.
+     * @return A String representing the generated sentence.
+     */
+    private String renderSentence(CompiledTemplate template, int templateIndex, BitSet plannedBlanks,
+                                  WordBank wordBank, RandomGenerator random, int sentenceIndex,
+                                  List<BlankSpan> blanks) {
+        long start = MadLibMetrics.ENABLED ? System.nanoTime() : 0;
+        MadLibEvents.SentenceBuilt event = null;
+        if (MadLibEvents.SENTENCE_BUILT.isEnabled()) {
+            event = new MadLibEvents.SentenceBuilt();
+            event.begin();
+        }
+        StringBuilder sentence = new StringBuilder(template.estimateLength());
+        sentence.append(template.getLiteral(0));
+
+        int slotCount = template.getSlotCount();
+        int[] slotStarts = null;
+        int[] slotEnds = null;
+        int[] slotBlanks = null;
+        if (template.hasReferences()) {
+            slotStarts = new int[slotCount];
+            slotEnds = new int[slotCount];
+            slotBlanks = new int[slotCount];
+        }
+
+        int blankCount = 0;
+        int wordsDrawn = 0;
+        for (int i = 0; i < slotCount; i++) {
+            SlotType type = template.getSlotType(i);
+            int article = template.getArticle(i);
+            boolean capital = article == CompiledTemplate.CAPITAL_ARTICLE;
+            int reference = template.getReference(i);
+            int wordStart;
+            if (reference >= 0) {
+                int sameAs = slotBlanks[reference];
+                int articleStart = sentence.length();
+                if (article != CompiledTemplate.NO_ARTICLE) {
+                    Inflector.appendArticle(sentence, Inflector.takesAn(sentence, slotStarts[reference]), capital);
+                }
+                wordStart = sentence.length();
+                sentence.append(sentence, slotStarts[reference], slotEnds[reference]);
+                if (sameAs != -1) {
+                    if (blanks != null) {
+                        blanks.add(new BlankSpan(sentenceIndex, wordStart, type.getPlaceholder().length(),
+                                type.getName(), sameAs, template.getAgreement(i), wordStart - articleStart));
+                    }
+                    blankCount++;
+                }
+                slotBlanks[i] = sameAs;
+            } else if (plannedBlanks != null ? plannedBlanks.get(i) : random.nextDouble() < blankFrequency) {
+                int articleStart = sentence.length();
+                if (article != CompiledTemplate.NO_ARTICLE) {
+                    Inflector.appendArticle(sentence, false, capital);
+                }
+                wordStart = sentence.length();
+                if (slotBlanks != null) {
+                    slotBlanks[i] = blanks != null ? blanks.size() : blankCount;
+                }
+                if (blanks != null) {
+                    blanks.add(new BlankSpan(sentenceIndex, wordStart, type.getPlaceholder().length(),
+                            type.getName(), -1, template.getAgreement(i), wordStart - articleStart));
+                }
+                sentence.append(type.getPlaceholder());
+                blankCount++;
+            } else {
+                if (slotBlanks != null) {
+                    slotBlanks[i] = -1;
+                }
+                wordStart = type.append(sentence, wordBank, anyTheme, random, template.getAgreement(i), article);
+                wordsDrawn++;
+            }
+            if (slotStarts != null) {
+                slotStarts[i] = wordStart;
+                slotEnds[i] = sentence.length();
+            }
+            sentence.append(template.getLiteral(i + 1));
+        }
+        if (MadLibMetrics.ENABLED) {
+            MadLibMetrics.recordSentence(theme, template.toString(), wordsDrawn, blankCount);
+            MadLibMetrics.record(MadLibMetrics.Stage.SENTENCE, start);
+        }
+        if (event != null && event.shouldCommit()) {
+            event.theme = theme;
+            event.templateIndex = templateIndex;
+            event.sentenceIndex = sentenceIndex;
+            event.blankCount = blankCount;
+            event.wordsDrawn = wordsDrawn;
+            event.commit();
+        }
+        return sentence.toString();
+    }
+
+    /**
+     * Builds sentence templates for rendering.
+     * The theme's templates are looked up in the current catalog, where they
+     * are compiled once and shared by every SentenceFactory.
+     */
+    protected void buildTemplates() {
+        TemplateCatalog catalog = TemplateRegistry.getCatalog();
+        TemplateCatalog.ThemeTemplates themeTemplates = catalog.getTheme(theme);
+        templates = new TemplateSet(catalog, themeTemplates);
+    }
+
+    /**
+     * Returns the templates of the current catalog, rebuilding them if the
+     * catalog was reloaded since they were last used.
+     * @return The current template set.
+     */
+    private TemplateSet currentTemplates() {
+        TemplateSet set = templates;
+        if (set.catalog() != TemplateRegistry.getCatalog()) {
+            buildTemplates();
+            set = templates;
+        }
+        return set;
+    }
+
+    /**
+     * TemplateSet record holds the theme's templates from one catalog.
+     * @param catalog The catalog the templates come from.
+     * @param templates The theme's templates, with their selector.
+     */
+    private record TemplateSet(TemplateCatalog catalog, TemplateCatalog.ThemeTemplates templates) {
+    }
+
+    /**
+     * Round class holds the template state of one Mad Lib: the catalog
+     * snapshot its templates come from, the selections made so far when
+     * templates are not repeated, and the Mad Lib's blank plan if it has one.
+     * It is not shared between Mad Libs.
+     */
+    protected static final class Round {
+        private final TemplateSet templates;
+        private final TemplateSelector.Round selections;
+        private BlankPlan blankPlan;
+
+        /**
+         * Constructor for Round class.
+         * @param templates The template set the round draws from.
+         * @param selections The selections without repeats, or null to select freely.
+         */
+        private Round(TemplateSet templates, TemplateSelector.Round selections) {
+            this.templates = templates;
+            this.selections = selections;
+        }
+
+        /**
+         * Picks the index of the next template.
+         * @param random The random generator used for the draw.
+         * @return Selected template index.
+         */
+        protected int next(RandomGenerator random) {
+            return selections == null ? templates.templates().getSelector().select(random) : selections.next(random);
+        }
+
+        /**
+         * Starts a new round over the same templates and selector. Given the
+         * same random streams, it makes the same selections this round made
+         * from its start, so a Mad Lib's templates can be looked at before
+         * it is built.
+         * @return A new round, with no selections made.
+         */
+        protected Round replay() {
+            return new Round(templates, selections == null ? null : templates.templates().getSelector().newRound());
+        }
+
+        /**
+         * Makes sentences built with this round blank the slots the plan says,
+         * instead of blanking each slot at random.
+         * @param blankPlan The blank plan of the Mad Lib.
+         */
+        protected void useBlankPlan(BlankPlan blankPlan) {
+            this.blankPlan = blankPlan;
+        }
+
+        /**
+         * Plans the blank slots of the round's next sentence from its blank plan.
+         * Sentences are planned in order, one after another.
+         * @param templateIndex Index of the sentence's template.
+         * @return The sentence's blank slots, or null if the round has no blank plan.
+         * The set is reused for the next sentence, so copy it to keep it longer.
+         */
+        protected BitSet planBlanks(int templateIndex) {
+            return blankPlan == null ? null : blankPlan.nextSentence(get(templateIndex));
+        }
+
+        /**
+         * Returns the generation of the catalog the round draws its templates from.
+         * @return The catalog generation.
+         */
+        protected int getCatalogGeneration() {
+            return templates.catalog().getGeneration();
+        }
+
+        /**
+         * Returns a template of the round's catalog snapshot.
+         * @param index The template index.
+         * @return The template.
+         */
+        protected CompiledTemplate get(int index) {
+            return templates.templates().get(index);
+        }
+    }
+}
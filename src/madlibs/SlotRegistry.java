@@ -0,0 +1,138 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SlotRegistry class holds every slot type a sentence template can use.
+ * Slot types are found through a table indexed by their symbol, so compiling
+ * a template costs one array read per character however many slot types
+ * are registered. Registering replaces the tables with updated copies, so
+ * lookups never lock.
+ * <p>
+ * Built-in slot types:
+ * $ = noun, # = verb, @ = adjective, % = adverb, &amp; = plural noun,
+ * ~ = past-tense verb, ^ = name, * = place, + = number.
+ * A slot symbol followed by a slot number, as in $2, repeats the word of
+ * that earlier slot of the template.
+ */
+public final class SlotRegistry {
+    private static final int TABLE_SIZE = 128;
+
+    private static volatile SlotType[] bySymbol = new SlotType[TABLE_SIZE];
+    private static volatile SlotType[] byId = new SlotType[0];
+    private static volatile Map<String, SlotType> byName = Map.of();
+
+    protected static final SlotType NOUN = register('$', "noun", WordBank.NOUN, Inflector.Form.BASE);
+    protected static final SlotType VERB = register('#', "verb", WordBank.VERB, Inflector.Form.BASE);
+    protected static final SlotType ADJECTIVE = register('@', "adjective", WordBank.ADJECTIVE, Inflector.Form.BASE);
+    protected static final SlotType ADVERB = register('%', "adverb", WordBank.ADVERB, Inflector.Form.BASE);
+    protected static final SlotType PLURAL_NOUN = register('&', "plural noun", WordBank.NOUN, Inflector.Form.PLURAL);
+    protected static final SlotType PAST_VERB = register('~', "past-tense verb", WordBank.VERB, Inflector.Form.PAST);
+    protected static final SlotType NAME = register('^', "name", WordBank.NAME, Inflector.Form.BASE);
+    protected static final SlotType PLACE = register('*', "place", WordBank.PLACE, Inflector.Form.BASE);
+    protected static final SlotType NUMBER = registerNumber('+', "number");
+
+    private SlotRegistry() {
+    }
+
+    /**
+     * Registers a slot type whose words are drawn from a word bank word type.
+     * @param symbol The template character marking the slot; not a letter, digit or space.
+     * @param name The name of the slot type, shown when the slot is blank.
+     * @param wordType The WordBank word type words are drawn from.
+     * @param form The form the drawn words are put in.
+     * @return The new slot type.
+     */
+    protected static SlotType register(char symbol, String name, int wordType, Inflector.Form form) {
+        if (wordType < 0 || wordType >= WordBank.WORD_TYPES.size()) {
+            throw new IllegalArgumentException("Unknown word type: " + wordType);
+        }
+        return add(symbol, name, SlotType.Kind.WORD, wordType, form);
+    }
+
+    /**
+     * Registers a slot type filled with a small number.
+     * @param symbol The template character marking the slot; not a letter, digit or space.
+     * @param name The name of the slot type, shown when the slot is blank.
+     * @return The new slot type.
+     */
+    protected static SlotType registerNumber(char symbol, String name) {
+        return add(symbol, name, SlotType.Kind.NUMBER, -1, Inflector.Form.BASE);
+    }
+
+    /**
+     * Looks up the slot type marked by a template character.
+     * @param symbol The template character.
+     * @return The slot type, or null if the character is literal text.
+     */
+    protected static SlotType bySymbol(char symbol) {
+        return symbol < TABLE_SIZE ? bySymbol[symbol] : null;
+    }
+
+    /**
+     * Looks up a slot type by name, as recorded in blank spans.
+     * @param name The name of the slot type.
+     * @return The slot type, or null if no slot type has the name.
+     */
+    protected static SlotType byName(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Looks up a slot type by id.
+     * @param id The slot type id.
+     * @return The slot type.
+     */
+    protected static SlotType byId(int id) {
+        return byId[id];
+    }
+
+    /**
+     * Returns every registered slot type, in registration order.
+     * @return Unmodifiable list of slot types.
+     */
+    protected static List<SlotType> getSlotTypes() {
+        return List.of(byId);
+    }
+
+    /**
+     * Adds a slot type to the lookup tables.
+     * @param symbol The template character marking the slot.
+     * @param name The name of the slot type.
+     * @param kind How the slot is filled.
+     * @param wordType The WordBank word type, or -1.
+     * @param form The form of the drawn words.
+     * @return The new slot type.
+     */
+    private static synchronized SlotType add(char symbol, String name, SlotType.Kind kind, int wordType,
+                                             Inflector.Form form) {
+        if (symbol >= TABLE_SIZE || Character.isLetterOrDigit(symbol) || Character.isWhitespace(symbol)) {
+            throw new IllegalArgumentException("Slot symbol must be ASCII punctuation: '" + symbol + "'");
+        }
+        if (bySymbol[symbol] != null) {
+            throw new IllegalArgumentException("Slot symbol '" + symbol + "' is already used by " +
+                    bySymbol[symbol]);
+        }
+        if (byName.containsKey(name)) {
+            throw new IllegalArgumentException("Slot type '" + name + "' is already registered");
+        }
+        SlotType slotType = new SlotType(byId.length, symbol, name, kind, wordType, form);
+
+        SlotType[] newBySymbol = bySymbol.clone();
+        newBySymbol[symbol] = slotType;
+        SlotType[] newById = Arrays.copyOf(byId, byId.length + 1);
+        newById[slotType.getId()] = slotType;
+        Map<String, SlotType> newByName = new HashMap<>(byName);
+        newByName.put(name, slotType);
+
+        byName = Map.copyOf(newByName);
+        byId = newById;
+        bySymbol = newBySymbol;
+        return slotType;
+    }
+}
@@ -0,0 +1,187 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * SlotType class describes one kind of placeholder in a sentence template:
+ * the symbol that marks it, the name shown when it is left blank, and how a
+ * word for it is drawn. Slot types are created and looked up through the
+ * SlotRegistry.
+ */
+public final class SlotType {
+    private static final int MIN_NUMBER = 2;
+    private static final int MAX_NUMBER = 20;
+    private static final String[] NUMBERS = new String[MAX_NUMBER - MIN_NUMBER + 1];
+    private static final boolean[] NUMBERS_TAKING_AN = new boolean[NUMBERS.length];
+
+    static {
+        for (int i = 0; i < NUMBERS.length; i++) {
+            NUMBERS[i] = Integer.toString(MIN_NUMBER + i);
+            NUMBERS_TAKING_AN[i] = Inflector.takesAn(NUMBERS[i]);
+        }
+    }
+
+    /**
+     * Ways a slot type fills its slot.
+     */
+    protected enum Kind {
+        /** A word drawn from one of the word bank's word types. */
+        WORD,
+        /** A small number, from 2 to 20, so the words around it can be plural. */
+        NUMBER
+    }
+
+    private final int id;
+    private final char symbol;
+    private final String name;
+    private final String placeholder;
+    private final Kind kind;
+    private final int wordType;
+    private final Inflector.Form form;
+
+    /**
+     * Constructor for SlotType class.
+     * @param id Index of the slot type in the registry.
+     * @param symbol The template character marking the slot.
+     * @param name The name of the slot type, e.g. "plural noun".
+     * @param kind How the slot is filled.
+     * @param wordType The WordBank word type words are drawn from, or -1 for numbers.
+     * @param form The form the drawn word is put in.
+     */
+    protected SlotType(int id, char symbol, String name, Kind kind, int wordType, Inflector.Form form) {
+        this.id = id;
+        this.symbol = symbol;
+        this.name = name;
+        this.placeholder = "[" + name + "]";
+        this.kind = kind;
+        this.wordType = wordType;
+        this.form = form;
+    }
+
+    /**
+     * Returns the index of the slot type in the registry.
+     * @return The slot type id.
+     */
+    protected int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the template character marking the slot.
+     * @return The symbol.
+     */
+    protected char getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns the name of the slot type, as shown to players and in blank spans.
+     * @return The name, e.g. "plural noun".
+     */
+    protected String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the text that stands in for a blank slot of this type.
+     * @return The placeholder, e.g. "[plural noun]".
+     */
+    protected String getPlaceholder() {
+        return placeholder;
+    }
+
+    /**
+     * Returns how the slot is filled.
+     * @return The kind.
+     */
+    protected Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the word bank word type the slot's words are drawn from.
+     * @return The word type, or -1 for numbers.
+     */
+    protected int getWordType() {
+        return wordType;
+    }
+
+    /**
+     * Returns the form the slot's words are put in.
+     * @return The form.
+     */
+    protected Inflector.Form getForm() {
+        return form;
+    }
+
+    /**
+     * Draws the text of a slot. Words come from the word bank, or from any
+     * theme when anyTheme is set or the bank has no words of the type.
+     * @param wordBank The word bank of the Mad Lib.
+     * @param anyTheme Whether words are drawn from any theme.
+     * @param random The random stream the draw is taken from.
+     * @return The word or number.
+     */
+    protected String draw(WordBank wordBank, boolean anyTheme, RandomGenerator random) {
+        if (kind == Kind.NUMBER) {
+            return NUMBERS[random.nextInt(NUMBERS.length)];
+        }
+        WordBank bank = wordBank;
+        int index = anyTheme ? -1 : bank.randomIndex(wordType, random);
+        if (index < 0) {
+            bank = WordBankRegistry.getRandomThemedBank(wordType, random);
+            index = bank.randomIndex(wordType, random);
+        }
+        return index < 0 ? null : bank.getWord(wordType, index, form);
+    }
+
+    /**
+     * Draws the text of a slot and appends it to a sentence, after an
+     * indefinite article if the template has one in front of the slot.
+     * The word's form and its article are read from the word bank's
+     * precomputed tables, so nothing is allocated. Makes the same draws as draw().
+     * @param sentence The sentence being built.
+     * @param wordBank The word bank of the Mad Lib.
+     * @param anyTheme Whether words are drawn from any theme.
+     * @param random The random stream the draw is taken from.
+     * @param agreement The form the sentence needs instead of the slot's own, or BASE.
+     * @param article The article in front of the slot, as returned by CompiledTemplate.getArticle().
+     * @return Offset within the sentence where the word itself starts, after any article.
+     */
+    protected int append(StringBuilder sentence, WordBank wordBank, boolean anyTheme, RandomGenerator random,
+                         Inflector.Form agreement, int article) {
+        String word;
+        boolean an;
+        if (kind == Kind.NUMBER) {
+            int index = random.nextInt(NUMBERS.length);
+            word = NUMBERS[index];
+            an = NUMBERS_TAKING_AN[index];
+        } else {
+            WordBank bank = wordBank;
+            int index = anyTheme ? -1 : bank.randomIndex(wordType, random);
+            if (index < 0) {
+                bank = WordBankRegistry.getRandomThemedBank(wordType, random);
+                index = bank.randomIndex(wordType, random);
+            }
+            word = index < 0 ? null : bank.getWord(wordType, index, agreement == Inflector.Form.BASE ? form : agreement);
+            an = index >= 0 && article != CompiledTemplate.NO_ARTICLE && bank.takesAn(wordType, index);
+        }
+        if (article != CompiledTemplate.NO_ARTICLE) {
+            Inflector.appendArticle(sentence, an, article == CompiledTemplate.CAPITAL_ARTICLE);
+        }
+        int start = sentence.length();
+        sentence.append(word);
+        return start;
+    }
+
+    /**
+     * Returns the name of the slot type.
+     * @return The name.
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,5 +1,7 @@
 // By: Landon Prince (5/4/2024)
 
+package madlibs;
+
 import java.util.List;
 import java.util.Arrays;
 
@@ -13,11 +15,11 @@ public class SpaceWordBank extends WordBank {
      * Calls the superclass constructor to initialize the word bank.
      */
     protected SpaceWordBank() {
-        fillBank();
+        super();
     }
 
     /**
-     * Fills the space-themed word bank with nouns, verbs, adjectives, and adverbs related to space.
+     * Fills the space-themed word bank with nouns, verbs, adjectives, adverbs, names and places related to space.
      */
     @Override
     protected void fillBank() {
@@ -87,5 +89,17 @@ public class SpaceWordBank extends WordBank {
                 "nebulously", "orbitally", "radiantly", "sideways", "spatially", "stellarly", "universally", "vastly",
                 "widely"
         ));
+        List<String> names = getNames();
+        names.addAll(Arrays.asList(
+                "Yuri", "Valentina", "Neil", "Buzz", "Sally", "Mae", "Ellen", "Carl", "Commander Vega",
+                "Captain Nova", "Dr. Orion", "Major Tom", "Luna", "Cosmo", "Ziggy", "Astra", "Admiral Zenith",
+                "Professor Quasar"
+        ));
+        List<String> places = getPlaces();
+        places.addAll(Arrays.asList(
+                "Mars", "the Moon", "Europa", "Titan", "the asteroid belt", "Olympus Mons", "Houston",
+                "Cape Canaveral", "Tranquility Base", "the space station", "the dark side of the moon",
+                "the Andromeda galaxy", "the Oort cloud", "Alpha Centauri", "mission control", "the launch pad"
+        ));
     }
-}
\ No newline at end of file
+}
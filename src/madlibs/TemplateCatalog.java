@@ -0,0 +1,315 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TemplateCatalog class is an immutable set of compiled sentence templates,
+ * indexed by theme and, within a theme, by slot count and length.
+ * A theme's templates are the common "all" templates plus its own, with
+ * duplicates removed. Each distinct template is compiled once and shared by
+ * every theme using it. A template can be given a selection weight, which a
+ * theme's own file may override for that theme. Within a theme, templates are sorted by slot count and
+ * then length, so the templates with a given number of slots form one range
+ * that is found in constant time.
+ * <p>
+ * Catalogs are built by TemplateFiles and published by TemplateRegistry.
+ * Every catalog gets a new generation number, so Mad Libs and sessions can
+ * tell whether the catalog they were built from has since been replaced.
+ */
+public final class TemplateCatalog {
+    protected static final String COMMON_THEME = "all";
+    private static final Comparator<CompiledTemplate> INDEX_ORDER =
+            Comparator.comparingInt(CompiledTemplate::getSlotCount)
+                    .thenComparingInt(CompiledTemplate::getLength)
+                    .thenComparing(CompiledTemplate::toString);
+    private static final AtomicInteger GENERATIONS = new AtomicInteger();
+
+    private final Map<String, ThemeTemplates> themes;
+    private final ThemeTemplates common;
+    private final int templateCount;
+    private final int generation = GENERATIONS.incrementAndGet();
+
+    /**
+     * Constructor for TemplateCatalog class.
+     * @param themes The indexed templates of each theme, including the "all" theme.
+     */
+    private TemplateCatalog(Map<String, ThemeTemplates> themes) {
+        this.themes = Map.copyOf(themes);
+        this.common = themes.get(COMMON_THEME);
+        if (common == null) {
+            throw new IllegalArgumentException("Template catalog has no \"" + COMMON_THEME + "\" templates");
+        }
+        Set<CompiledTemplate> distinct = new LinkedHashSet<>();
+        for (ThemeTemplates theme : themes.values()) {
+            distinct.addAll(theme.getTemplates());
+        }
+        this.templateCount = distinct.size();
+    }
+
+    /**
+     * Returns the generation of the catalog, which is different for every catalog built.
+     * @return The catalog generation.
+     */
+    protected int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Builds a catalog from template sources grouped by theme. Every theme
+     * gets the "all" templates in addition to its own.
+     * @param sources The template sources of each theme with their weights, in file order;
+     *                must include the "all" theme.
+     * @return The catalog.
+     */
+    protected static TemplateCatalog of(Map<String, Map<String, Double>> sources) {
+        Map<String, Double> commonSources = sources.get(COMMON_THEME);
+        if (commonSources == null) {
+            throw new IllegalArgumentException("Template catalog has no \"" + COMMON_THEME + "\" templates");
+        }
+        Map<String, CompiledTemplate> compiled = new HashMap<>();
+        Map<String, ThemeTemplates> themes = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Double>> entry : sources.entrySet()) {
+            Map<String, Double> themeSources = new LinkedHashMap<>(commonSources);
+            themeSources.putAll(entry.getValue());
+            Map<CompiledTemplate, Double> templates = new LinkedHashMap<>();
+            for (Map.Entry<String, Double> source : themeSources.entrySet()) {
+                templates.put(compiled.computeIfAbsent(source.getKey(), CompiledTemplate::compile), source.getValue());
+            }
+            themes.put(entry.getKey().toLowerCase(), ThemeTemplates.index(templates));
+        }
+        return new TemplateCatalog(themes);
+    }
+
+    /**
+     * Builds a catalog from themes that are already indexed, as read from a
+     * compiled catalog file.
+     * @param themes The indexed templates of each theme, including the "all" theme.
+     * @return The catalog.
+     */
+    protected static TemplateCatalog ofIndexed(Map<String, ThemeTemplates> themes) {
+        return new TemplateCatalog(themes);
+    }
+
+    /**
+     * Returns the templates of a theme. Themes without templates of their own,
+     * such as word bank catalog themes, use the "all" templates.
+     * @param theme The theme.
+     * @return The theme's indexed templates.
+     */
+    protected ThemeTemplates getTheme(String theme) {
+        ThemeTemplates templates = themes.get(theme.toLowerCase());
+        return templates == null ? common : templates;
+    }
+
+    /**
+     * Returns the templates of a theme with exactly a given number of slots.
+     * @param theme The theme.
+     * @param slotCount The number of slots.
+     * @return Unmodifiable list of templates, shortest first.
+     */
+    protected List<CompiledTemplate> getTemplates(String theme, int slotCount) {
+        return getTheme(theme).withSlots(slotCount);
+    }
+
+    /**
+     * Returns the themes that have templates of their own, plus "all".
+     * @return Unmodifiable set of theme names.
+     */
+    protected Set<String> getThemes() {
+        return themes.keySet();
+    }
+
+    /**
+     * Returns the number of distinct templates across all themes.
+     * @return Template count.
+     */
+    protected int getTemplateCount() {
+        return templateCount;
+    }
+
+    /**
+     * ThemeTemplates class holds the templates of one theme in index order,
+     * the start of each slot count's range, their weights, and a selector over them.
+     */
+    protected static final class ThemeTemplates {
+        private final List<CompiledTemplate> templates;
+        private final int[] slotStarts;
+        private final double[] weights;
+        private final TemplateSelector selector;
+
+        /**
+         * Constructor for ThemeTemplates class.
+         * @param templates The templates, sorted by slot count and then length.
+         * @param slotStarts Index of the first template with each slot count, from 0 to the
+         *                   largest slot count, followed by the template count.
+         * @param weights The selection weight of each template, or null if every weight is 1.
+         */
+        protected ThemeTemplates(List<CompiledTemplate> templates, int[] slotStarts, double[] weights) {
+            if (slotStarts.length < 2 || slotStarts[0] != 0 || slotStarts[slotStarts.length - 1] != templates.size()) {
+                throw new IllegalArgumentException("Slot index does not cover the templates");
+            }
+            for (int slotCount = 0; slotCount < slotStarts.length - 1; slotCount++) {
+                if (slotStarts[slotCount] > slotStarts[slotCount + 1]) {
+                    throw new IllegalArgumentException("Slot index is not sorted");
+                }
+                for (int i = slotStarts[slotCount]; i < slotStarts[slotCount + 1]; i++) {
+                    if (templates.get(i).getSlotCount() != slotCount) {
+                        throw new IllegalArgumentException("Template " + i + " is not in its slot count range");
+                    }
+                }
+            }
+            if (weights != null && weights.length != templates.size()) {
+                throw new IllegalArgumentException("Expected " + templates.size() + " template weights, got " +
+                        weights.length);
+            }
+            this.templates = List.copyOf(templates);
+            this.slotStarts = slotStarts.clone();
+            this.weights = weights == null ? null : weights.clone();
+            this.selector = weights == null ? TemplateSelector.uniform(templates.size())
+                    : TemplateSelector.weighted(weights);
+        }
+
+        /**
+         * Sorts templates into index order and builds their slot count index.
+         * @param templates The distinct templates of a theme with their weights.
+         * @return The indexed templates.
+         */
+        protected static ThemeTemplates index(Map<CompiledTemplate, Double> templates) {
+            List<CompiledTemplate> sorted = new ArrayList<>(templates.keySet());
+            sorted.sort(INDEX_ORDER);
+            int maxSlotCount = sorted.isEmpty() ? 0 : sorted.getLast().getSlotCount();
+            int[] slotStarts = new int[maxSlotCount + 2];
+            for (CompiledTemplate template : sorted) {
+                slotStarts[template.getSlotCount() + 1]++;
+            }
+            for (int slotCount = 1; slotCount < slotStarts.length; slotCount++) {
+                slotStarts[slotCount] += slotStarts[slotCount - 1];
+            }
+            double[] weights = new double[sorted.size()];
+            boolean weighted = false;
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = templates.get(sorted.get(i));
+                weighted |= weights[i] != 1.0;
+            }
+            return new ThemeTemplates(sorted, slotStarts, weighted ? weights : null);
+        }
+
+        /**
+         * Returns the number of templates of the theme.
+         * @return Template count.
+         */
+        protected int size() {
+            return templates.size();
+        }
+
+        /**
+         * Returns a template by index.
+         * @param index The template index, in index order.
+         * @return The template.
+         */
+        protected CompiledTemplate get(int index) {
+            return templates.get(index);
+        }
+
+        /**
+         * Returns the selection weight of a template.
+         * @param index The template index, in index order.
+         * @return The weight; 1 unless the template files give another.
+         */
+        protected double getWeight(int index) {
+            return weights == null ? 1.0 : weights[index];
+        }
+
+        /**
+         * Checks whether any template of the theme has a weight other than 1.
+         * @return True if selection is weighted.
+         */
+        protected boolean isWeighted() {
+            return weights != null;
+        }
+
+        /**
+         * Returns all templates of the theme.
+         * @return Unmodifiable list of templates, sorted by slot count and then length.
+         */
+        protected List<CompiledTemplate> getTemplates() {
+            return templates;
+        }
+
+        /**
+         * Returns the selector picking templates of the theme in proportion to their weights.
+         * @return Template selector.
+         */
+        protected TemplateSelector getSelector() {
+            return selector;
+        }
+
+        /**
+         * Returns the largest slot count of any template of the theme.
+         * @return Largest slot count.
+         */
+        protected int getMaxSlotCount() {
+            return slotStarts.length - 2;
+        }
+
+        /**
+         * Returns the index of the first template with a given number of slots.
+         * @param slotCount The number of slots.
+         * @return Index of the first template with that many slots, or of the
+         *         first template with more if there is none.
+         */
+        protected int slotStart(int slotCount) {
+            return slotStarts[Math.clamp(slotCount, 0, slotStarts.length - 1)];
+        }
+
+        /**
+         * Returns the index just past the last template with a given number of slots.
+         * @param slotCount The number of slots.
+         * @return End index of the slot count's range.
+         */
+        protected int slotEnd(int slotCount) {
+            return slotCount < 0 ? 0 : slotStarts[Math.min(slotCount + 1, slotStarts.length - 1)];
+        }
+
+        /**
+         * Returns the templates with exactly a given number of slots, in constant time.
+         * @param slotCount The number of slots.
+         * @return Unmodifiable list of templates, shortest first.
+         */
+        protected List<CompiledTemplate> withSlots(int slotCount) {
+            return templates.subList(slotStart(slotCount), slotEnd(slotCount));
+        }
+
+        /**
+         * Returns the templates with exactly a given number of slots and at most
+         * a given length, found by binary search within the slot count's range.
+         * @param slotCount The number of slots.
+         * @param maxLength The longest template text allowed.
+         * @return Unmodifiable list of templates, shortest first.
+         */
+        protected List<CompiledTemplate> withSlots(int slotCount, int maxLength) {
+            int low = slotStart(slotCount);
+            int high = slotEnd(slotCount);
+            int start = low;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (templates.get(middle).getLength() <= maxLength) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return templates.subList(start, low);
+        }
+    }
+}
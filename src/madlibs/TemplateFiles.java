@@ -0,0 +1,339 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * TemplateFiles class loads sentence template catalogs from files.
+ * Two formats are supported:
+ * <ul>
+ *     <li>A directory of text files (.txt), one per theme and named after it,
+ *     holding one template per line. A line ending in "= " and a number, as in
+ *     "The $ # %. = 3", gives the template a selection weight; it is picked
+ *     three times as often as an unweighted template, and never if the weight
+ *     is 0. A slot symbol that should appear as plain text is escaped with a
+ *     backslash, as in "It cost \$5.", and "\\" is a plain backslash. Blank
+ *     lines and lines starting with // are ignored. The directory must have an
+ *     all.txt, whose templates are used for every theme.</li>
+ *     <li>A compiled catalog (.tbin) holding every distinct template once,
+ *     followed by each theme's templates in index order, its slot count
+ *     index and, from version 2, its weights, so loading only compiles the
+ *     templates and does no sorting or deduplication.</li>
+ * </ul>
+ * The built-in catalog is read from the text files under madlibs/templates
+ * on the class path.
+ */
+public final class TemplateFiles {
+    protected static final String TEXT_EXTENSION = ".txt";
+    protected static final String BINARY_EXTENSION = ".tbin";
+    private static final int MAGIC = 0x4D4C5443; // "MLTC"
+    private static final int VERSION = 1;
+    private static final int WEIGHTED_VERSION = 2;
+    private static final Pattern WEIGHT = Pattern.compile("\\s*=\\s*([0-9]+(?:\\.[0-9]*)?)$");
+    private static final int HEADER_INTS = 5;
+    private static final String COMMENT = "//";
+    private static final String RESOURCE_DIRECTORY = "templates/";
+    private static final List<String> BUILT_IN_THEMES = List.of(TemplateCatalog.COMMON_THEME,
+            "space", "western", "pirate");
+
+    private TemplateFiles() {
+    }
+
+    /**
+     * Compiles a directory of text template files into a catalog file.
+     * Usage: TemplateFiles templates/ templates.tbin
+     * @param args The input directory and output path.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TemplateFiles <template directory> <output" + BINARY_EXTENSION + ">");
+            System.exit(2);
+        }
+        writeBinary(Path.of(args[1]), loadDirectory(Path.of(args[0])));
+    }
+
+    /**
+     * Loads a template catalog from a directory of text files or a compiled catalog file.
+     * @param source The directory or .tbin file.
+     * @return The loaded catalog.
+     */
+    protected static TemplateCatalog load(Path source) throws IOException {
+        if (Files.isDirectory(source)) {
+            return loadDirectory(source);
+        }
+        if (source.getFileName().toString().endsWith(BINARY_EXTENSION)) {
+            return readBinary(source);
+        }
+        throw new IOException(source + ": expected a template directory or a " + BINARY_EXTENSION + " file");
+    }
+
+    /**
+     * Loads the built-in template catalog from the class path.
+     * @return The built-in catalog.
+     */
+    protected static TemplateCatalog loadBuiltIn() throws IOException {
+        Map<String, Map<String, Double>> sources = new LinkedHashMap<>();
+        for (String theme : BUILT_IN_THEMES) {
+            String name = RESOURCE_DIRECTORY + theme + TEXT_EXTENSION;
+            try (InputStream in = TemplateFiles.class.getResourceAsStream(name)) {
+                if (in == null) {
+                    throw new IOException("Built-in templates not found on the class path: " + name);
+                }
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                sources.put(theme, readText(reader, name));
+            }
+        }
+        return TemplateCatalog.of(sources);
+    }
+
+    /**
+     * Loads a directory of text template files, one file per theme.
+     * @param directory The template directory.
+     * @return The loaded catalog.
+     */
+    protected static TemplateCatalog loadDirectory(Path directory) throws IOException {
+        Map<String, Map<String, Double>> sources = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(TEXT_EXTENSION)).toList()) {
+                try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    sources.put(WordBankFiles.themeOf(file), readText(reader, file.toString()));
+                }
+            }
+        }
+        if (!sources.containsKey(TemplateCatalog.COMMON_THEME)) {
+            throw new IOException(directory + ": no " + TemplateCatalog.COMMON_THEME + TEXT_EXTENSION + " templates");
+        }
+        try {
+            return TemplateCatalog.of(sources);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the templates of a text template file, checking that each one compiles.
+     * @param reader The reader of the file.
+     * @param name The file name, for error messages.
+     * @return The templates with their weights, in file order.
+     */
+    private static Map<String, Double> readText(BufferedReader reader, String name) throws IOException {
+        Map<String, Double> templates = new LinkedHashMap<>();
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String template = line.strip();
+            if (template.isEmpty() || template.startsWith(COMMENT)) {
+                continue;
+            }
+            double weight = 1.0;
+            Matcher matcher = WEIGHT.matcher(template);
+            if (matcher.find()) {
+                weight = Double.parseDouble(matcher.group(1));
+                template = template.substring(0, matcher.start());
+            }
+            try {
+                CompiledTemplate.compile(template);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(name + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+            templates.put(template, weight);
+        }
+        return templates;
+    }
+
+    /**
+     * Writes a template catalog in the compiled format.
+     * Layout (big-endian): magic, version, string count, theme count, the byte
+     * offset of the string data, the offset of each string within the data plus
+     * the end offset, then per theme its name's string index, template count,
+     * largest slot count, slot count index and the string index of each template
+     * in index order, and finally the UTF-8 bytes of every string back to back.
+     * If any theme is weighted, the file is version 2 and each theme's template
+     * indices are followed by a weighted flag and, if set, one double weight
+     * per template.
+     * @param file The file to write.
+     * @param catalog The catalog to write.
+     */
+    protected static void writeBinary(Path file, TemplateCatalog catalog) throws IOException {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIndices = new HashMap<>();
+        List<String> themes = catalog.getThemes().stream().sorted().toList();
+        int themeInts = 0;
+        boolean weighted = false;
+        for (String theme : themes) {
+            TemplateCatalog.ThemeTemplates templates = catalog.getTheme(theme);
+            stringIndices.computeIfAbsent(theme, s -> addString(strings, s));
+            for (CompiledTemplate template : templates.getTemplates()) {
+                stringIndices.computeIfAbsent(template.toString(), s -> addString(strings, s));
+            }
+            themeInts += 3 + templates.getMaxSlotCount() + 2 + templates.size();
+            weighted |= templates.isWeighted();
+        }
+        int weightBytes = 0;
+        if (weighted) {
+            for (String theme : themes) {
+                TemplateCatalog.ThemeTemplates templates = catalog.getTheme(theme);
+                weightBytes += Integer.BYTES + (templates.isWeighted() ? templates.size() * Double.BYTES : 0);
+            }
+        }
+
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        int dataLength = 0;
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            dataLength += bytes.length;
+        }
+        int dataStart = (HEADER_INTS + strings.size() + 1 + themeInts) * Integer.BYTES + weightBytes;
+        ByteBuffer buffer = ByteBuffer.allocate(dataStart + dataLength);
+        buffer.putInt(MAGIC).putInt(weighted ? WEIGHTED_VERSION : VERSION).putInt(strings.size())
+                .putInt(themes.size()).putInt(dataStart);
+        int offset = 0;
+        for (byte[] bytes : encoded) {
+            buffer.putInt(offset);
+            offset += bytes.length;
+        }
+        buffer.putInt(offset);
+        for (String theme : themes) {
+            TemplateCatalog.ThemeTemplates templates = catalog.getTheme(theme);
+            buffer.putInt(stringIndices.get(theme)).putInt(templates.size()).putInt(templates.getMaxSlotCount());
+            for (int slotCount = 0; slotCount <= templates.getMaxSlotCount() + 1; slotCount++) {
+                buffer.putInt(templates.slotStart(slotCount));
+            }
+            for (CompiledTemplate template : templates.getTemplates()) {
+                buffer.putInt(stringIndices.get(template.toString()));
+            }
+            if (weighted) {
+                buffer.putInt(templates.isWeighted() ? 1 : 0);
+                for (int i = 0; templates.isWeighted() && i < templates.size(); i++) {
+                    buffer.putDouble(templates.getWeight(i));
+                }
+            }
+        }
+        for (byte[] bytes : encoded) {
+            buffer.put(bytes);
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(buffer.array());
+        }
+    }
+
+    /**
+     * Reads a compiled template catalog. Each distinct template is compiled
+     * once, and the themes' slot count indexes are used as stored.
+     * @param file The compiled catalog file.
+     * @return The loaded catalog.
+     */
+    protected static TemplateCatalog readBinary(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.capacity() < HEADER_INTS * Integer.BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException(file + ": not a template catalog file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION && version != WEIGHTED_VERSION) {
+            throw new IOException(file + ": unsupported version " + version);
+        }
+        try {
+            int stringCount = buffer.getInt();
+            int themeCount = buffer.getInt();
+            int dataStart = buffer.getInt();
+            if (dataStart < 0 || dataStart > buffer.capacity()) {
+                throw new IOException(file + ": truncated template catalog file");
+            }
+            stringCount = checkCount(file, buffer, stringCount + 1L, Integer.BYTES) - 1;
+            checkCount(file, buffer, themeCount, 3 * Integer.BYTES);
+            int[] offsets = new int[stringCount + 1];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = buffer.getInt();
+            }
+            String[] strings = new String[stringCount];
+            CompiledTemplate[] compiled = new CompiledTemplate[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                int length = offsets[i + 1] - offsets[i];
+                if (offsets[i] < 0 || length < 0 || dataStart + offsets[i + 1] > buffer.capacity()) {
+                    throw new IOException(file + ": truncated template catalog file");
+                }
+                strings[i] = new String(buffer.array(), dataStart + offsets[i], length, StandardCharsets.UTF_8);
+            }
+
+            Map<String, TemplateCatalog.ThemeTemplates> themes = new LinkedHashMap<>();
+            for (int t = 0; t < themeCount; t++) {
+                String theme = strings[buffer.getInt()];
+                int templateCount = buffer.getInt();
+                int[] slotStarts = new int[checkCount(file, buffer, buffer.getInt() + 2L, Integer.BYTES)];
+                for (int i = 0; i < slotStarts.length; i++) {
+                    slotStarts[i] = buffer.getInt();
+                }
+                checkCount(file, buffer, templateCount, Integer.BYTES);
+                List<CompiledTemplate> templates = new ArrayList<>(templateCount);
+                for (int i = 0; i < templateCount; i++) {
+                    int index = buffer.getInt();
+                    if (compiled[index] == null) {
+                        compiled[index] = CompiledTemplate.compile(strings[index]);
+                    }
+                    templates.add(compiled[index]);
+                }
+                double[] weights = null;
+                if (version == WEIGHTED_VERSION && buffer.getInt() != 0) {
+                    weights = new double[checkCount(file, buffer, templateCount, Double.BYTES)];
+                    for (int i = 0; i < templateCount; i++) {
+                        weights[i] = buffer.getDouble();
+                    }
+                }
+                themes.put(theme, new TemplateCatalog.ThemeTemplates(templates, slotStarts, weights));
+            }
+            return TemplateCatalog.ofIndexed(themes);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException(file + ": truncated template catalog file", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks a count read from a catalog file against the bytes left in it,
+     * so a corrupt count fails the load instead of allocating a huge array.
+     * @param file The catalog file, for the error message.
+     * @param buffer The file's contents, positioned after the count.
+     * @param count The count read from the file.
+     * @param bytesEach The number of bytes each counted entry takes in the file.
+     * @return The count.
+     */
+    private static int checkCount(Path file, ByteBuffer buffer, long count, int bytesEach) throws IOException {
+        if (count < 0 || count * bytesEach > buffer.remaining()) {
+            throw new IOException(file + ": truncated template catalog file");
+        }
+        return (int) count;
+    }
+
+    /**
+     * Appends a string to the string table of a catalog file.
+     * @param strings The string table.
+     * @param string The string to append.
+     * @return Index of the string in the table.
+     */
+    private static int addString(List<String> strings, String string) {
+        strings.add(string);
+        return strings.size() - 1;
+    }
+}
@@ -0,0 +1,196 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * TemplateRegistry class publishes the sentence template catalog every
+ * SentenceFactory draws from. The catalog is an immutable TemplateCatalog
+ * behind an atomic reference, so readers never lock: a reload builds a whole
+ * new catalog and swaps the reference, and Mad Libs already being built keep
+ * the catalog they started with.
+ * <p>
+ * The built-in catalog is used unless a template directory or compiled
+ * catalog file is given, either with the madlibs.templates system property
+ * or through useSource(). A source can be watched, in which case it is
+ * reloaded whenever its files change. A source that fails to load leaves
+ * the current catalog in place.
+ */
+public final class TemplateRegistry {
+    private static final String SOURCE_PROPERTY = "madlibs.templates";
+    private static final long SETTLE_MILLIS = 200;
+
+    private static final AtomicReference<TemplateCatalog> CATALOG = new AtomicReference<>(loadBuiltIn());
+    private static Path source;
+    private static WatchService watchService;
+
+    static {
+        String path = System.getProperty(SOURCE_PROPERTY);
+        if (path != null) {
+            try {
+                useSource(Path.of(path), false);
+            } catch (IOException e) {
+                System.err.println("Could not load templates, using the built-in ones: " + e.getMessage());
+            }
+        }
+    }
+
+    private TemplateRegistry() {
+    }
+
+    /**
+     * Returns the current template catalog.
+     * @return The catalog.
+     */
+    protected static TemplateCatalog getCatalog() {
+        return CATALOG.get();
+    }
+
+    /**
+     * Loads the template catalog from a directory of text template files or a
+     * compiled catalog file and publishes it. Replaces any previous source and
+     * stops watching it.
+     * @param path The template directory or .tbin file.
+     * @param watch Whether to reload the catalog whenever the source changes.
+     */
+    protected static synchronized void useSource(Path path, boolean watch) throws IOException {
+        TemplateCatalog catalog = TemplateFiles.load(path);
+        stopWatching();
+        source = path;
+        CATALOG.set(catalog);
+        if (watch) {
+            startWatching(path);
+        }
+    }
+
+    /**
+     * Reloads the catalog from the current source. If the source fails to
+     * load, the current catalog is kept and the error is printed.
+     * @return True if a new catalog was published.
+     */
+    protected static synchronized boolean reload() {
+        if (source == null) {
+            return false;
+        }
+        try {
+            CATALOG.set(TemplateFiles.load(source));
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Could not reload templates, keeping the current ones: " + e.getMessage());
+            return false;
+        } catch (RuntimeException e) {
+            System.err.println("Could not reload templates, keeping the current ones: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Starts a daemon thread reloading the catalog whenever the source changes.
+     * A directory is watched as a whole; a file is watched through its parent.
+     * @param path The template source.
+     */
+    private static void startWatching(Path path) throws IOException {
+        boolean directory = Files.isDirectory(path);
+        Path watched = directory ? path : path.toAbsolutePath().getParent();
+        Path fileName = directory ? null : path.getFileName();
+        WatchService service = watched.getFileSystem().newWatchService();
+        watched.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watchService = service;
+        Thread.ofPlatform().name("template-watcher").daemon().start(() -> watch(service, fileName));
+    }
+
+    /**
+     * Stops watching the current source, if it is watched.
+     */
+    private static void stopWatching() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("Could not stop watching templates: " + e.getMessage());
+            }
+            watchService = null;
+        }
+    }
+
+    /**
+     * Waits for changes to the source and reloads it. Events arriving within
+     * a short settle time of each other are reloaded once, so an editor saving
+     * several files, or writing one in steps, does not load half-written files.
+     * A reload that fails, even by running out of memory, leaves the watcher running.
+     * @param service The watch service of the source.
+     * @param fileName The watched file's name, or null if the whole directory is watched.
+     */
+    private static void watch(WatchService service, Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = isRelevant(key, fileName);
+                WatchKey next;
+                while ((next = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= isRelevant(next, fileName);
+                }
+                if (changed) {
+                    synchronized (TemplateRegistry.class) {
+                        if (watchService != service) {
+                            return;
+                        }
+                        try {
+                            reload();
+                        } catch (Error e) {
+                            System.err.println("Could not reload templates, keeping the current ones: " + e);
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The source was replaced or the program is exiting.
+        }
+    }
+
+    /**
+     * Checks whether a watch key's events touch the source, and resets the key.
+     * @param key The signalled watch key.
+     * @param fileName The watched file's name, or null if the whole directory is watched.
+     * @return True if any event touches the source.
+     */
+    private static boolean isRelevant(WatchKey key, Path fileName) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else {
+                Path changed = (Path) event.context();
+                relevant |= fileName == null
+                        ? changed.getFileName().toString().endsWith(TemplateFiles.TEXT_EXTENSION)
+                        : changed.equals(fileName);
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Loads the built-in template catalog.
+     * @return The built-in catalog.
+     */
+    private static TemplateCatalog loadBuiltIn() {
+        try {
+            return TemplateFiles.loadBuiltIn();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.BitSet;
+import java.util.random.RandomGenerator;
+
+/**
+ * TemplateSelector class picks sentence templates by index in constant time.
+ * Selection is uniform by default, or weighted through an alias table.
+ * A selector never changes after it is built, so it can be shared between threads;
+ * sampling without repeats is done through a separate Round per Mad Lib.
+ */
+public final class TemplateSelector {
+    private static final int MAX_REJECTIONS = 32;
+
+    private final int size;
+    private final AliasTable weights;
+    private final double[] templateWeights;
+    private final int positiveCount;
+    private final double totalWeight;
+
+    /**
+     * Constructor for TemplateSelector class.
+     * @param size The number of templates to select from.
+     * @param templateWeights The weight of each template, or null for uniform.
+     */
+    private TemplateSelector(int size, double[] templateWeights) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Template selector needs at least one template");
+        }
+        this.size = size;
+        this.weights = templateWeights == null ? null : new AliasTable(templateWeights);
+        this.templateWeights = templateWeights == null ? null : templateWeights.clone();
+        int positive = size;
+        double total = size;
+        if (templateWeights != null) {
+            positive = 0;
+            total = 0;
+            for (double weight : templateWeights) {
+                if (weight > 0) {
+                    positive++;
+                    total += weight;
+                }
+            }
+        }
+        this.positiveCount = positive;
+        this.totalWeight = total;
+    }
+
+    /**
+     * Creates a selector that picks every template with equal probability.
+     * @param size The number of templates.
+     * @return Uniform template selector.
+     */
+    protected static TemplateSelector uniform(int size) {
+        return new TemplateSelector(size, null);
+    }
+
+    /**
+     * Creates a selector that picks templates in proportion to their weights.
+     * @param weights The weight of each template, in template order.
+     * @return Weighted template selector.
+     */
+    protected static TemplateSelector weighted(double[] weights) {
+        return new TemplateSelector(weights.length, weights);
+    }
+
+    /**
+     * Picks a template index.
+     * @param random The random generator used for the draw.
+     * @return Selected template index.
+     */
+    protected int select(RandomGenerator random) {
+        return weights == null ? random.nextInt(size) : weights.sample(random);
+    }
+
+    /**
+     * Starts a new round of selections that avoids repeating templates.
+     * @return A round owned by a single Mad Lib.
+     */
+    protected Round newRound() {
+        return new Round();
+    }
+
+    /**
+     * Round class picks templates without repeats until every template that can
+     * be selected has been used, after which it starts over. Templates with
+     * weight 0 are never selected. It holds per Mad Lib state and is not shared.
+     */
+    protected final class Round {
+        private final int[] order;
+        private final BitSet used = new BitSet(size);
+        private int remaining = positiveCount;
+        private double remainingWeight = totalWeight;
+
+        /**
+         * Constructor for Round class.
+         * Starts with every template available.
+         */
+        private Round() {
+            order = weights == null ? new int[size] : null;
+            if (order != null) {
+                for (int i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+            }
+        }
+
+        /**
+         * Picks a template index that has not been used in this round.
+         * Uniform selectors do one step of a Fisher-Yates shuffle; weighted
+         * selectors redraw a few times, then draw from the weight of the
+         * unused templates.
+         * @param random The random generator used for the draw.
+         * @return Selected template index.
+         */
+        protected int next(RandomGenerator random) {
+            if (remaining == 0) {
+                remaining = positiveCount;
+                remainingWeight = totalWeight;
+                used.clear();
+            }
+            if (weights == null) {
+                int pick = random.nextInt(remaining);
+                int index = order[pick];
+                order[pick] = order[--remaining];
+                order[remaining] = index;
+                return index;
+            }
+            int index = weights.sample(random);
+            for (int attempt = 0; used.get(index) && attempt < MAX_REJECTIONS; attempt++) {
+                index = weights.sample(random);
+            }
+            if (used.get(index)) {
+                index = drawUnused(random);
+            }
+            used.set(index);
+            remaining--;
+            remainingWeight -= templateWeights[index];
+            return index;
+        }
+
+        /**
+         * Draws an unused template in proportion to its weight, by walking the
+         * unused templates. Only used once redrawing keeps hitting used ones,
+         * when few templates are left.
+         * @param random The random generator used for the draw.
+         * @return Index of an unused template with positive weight.
+         */
+        private int drawUnused(RandomGenerator random) {
+            double target = random.nextDouble() * remainingWeight;
+            int last = -1;
+            for (int i = used.nextClearBit(0); i < size; i = used.nextClearBit(i + 1)) {
+                if (templateWeights[i] > 0) {
+                    last = i;
+                    target -= templateWeights[i];
+                    if (target < 0) {
+                        return i;
+                    }
+                }
+            }
+            return last;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 // By: Landon Prince (5/4/2024)
 
+package madlibs;
+
 import java.util.List;
 import java.util.Arrays;
 
@@ -13,11 +15,11 @@ public class WesternWordBank extends WordBank {
      * Calls the superclass constructor to initialize the word bank.
      */
     protected WesternWordBank() {
-        fillBank();
+        super();
     }
 
     /**
-     * Fills the western-themed word bank with nouns, verbs, adjectives, and adverbs related to western.
+     * Fills the western-themed word bank with nouns, verbs, adjectives, adverbs, names and places related to western.
      */
     @Override
     protected void fillBank() {
@@ -87,5 +89,17 @@ public class WesternWordBank extends WordBank {
                 "tensely", "thoughtfully", "tightly", "truly", "typically", "unhappily", "usually", "viciously",
                 "warmly", "wearily", "wildly", "wisely", "yearningly", "zealously"
         ));
+        List<String> names = getNames();
+        names.addAll(Arrays.asList(
+                "Wild Bill", "Calamity Jane", "Doc Holliday", "Annie Oakley", "Billy the Kid", "Jesse James",
+                "Butch Cassidy", "the Sundance Kid", "Belle Starr", "Pecos Bill", "Wyatt", "Dusty", "Maverick",
+                "Sheriff Walker", "Big Nose Kate", "Black Jack Ketchum", "Sam Bass", "Cactus Jack"
+        ));
+        List<String> places = getPlaces();
+        places.addAll(Arrays.asList(
+                "Tombstone", "Deadwood", "Dodge City", "the O.K. Corral", "Abilene", "El Paso", "Laredo",
+                "the Rio Grande", "Monument Valley", "the Chisholm Trail", "Santa Fe", "Cheyenne",
+                "the saloon", "the old mine", "Dead Man's Gulch", "the county jail"
+        ));
     }
 }
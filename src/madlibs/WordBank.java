@@ -0,0 +1,429 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * WordBank class represents a bank of words used in Mad Libs.
+ * It provides methods to retrieve random words and word lists.
+ */
+public class WordBank {
+    protected static final int NOUN = 0;
+    protected static final int VERB = 1;
+    protected static final int ADJECTIVE = 2;
+    protected static final int ADVERB = 3;
+    protected static final int NAME = 4;
+    protected static final int PLACE = 5;
+    protected static final List<String> WORD_TYPES = List.of("noun", "verb", "adjective", "adverb", "name", "place");
+
+    private final List<List<String>> WORDS = new ArrayList<>();
+    private WordStore wordStore;
+    private volatile double[][] weights = new double[WORD_TYPES.size()][];
+    private volatile AliasTable[] aliasTables = new AliasTable[WORD_TYPES.size()];
+
+    /**
+     * Constructor for WordBank class.
+     * Initializes the word bank. Draws without an explicit generator use the
+     * calling thread's ThreadLocalRandom, so a shared bank is never contended.
+     */
+    protected WordBank() {
+        fillBank();
+    }
+
+    /**
+     * Constructor for WordBank class.
+     * Initializes the word bank with word lists loaded elsewhere, such as from
+     * a word bank file, instead of filling it.
+     * @param wordLists One list per word type (nouns, verbs, adjectives, adverbs, names, places).
+     */
+    protected WordBank(List<List<String>> wordLists) {
+        if (wordLists.size() != WORD_TYPES.size()) {
+            throw new IllegalArgumentException("Expected " + WORD_TYPES.size() +
+                    " word lists, got " + wordLists.size());
+        }
+        WORDS.addAll(wordLists);
+    }
+
+    /**
+     * Fills the word bank with empty lists for different word types
+     * (nouns, verbs, adjectives, adverbs, names, places).
+     */
+    protected void fillBank() {
+        WORDS.add(new ArrayList<>()); // nouns
+        WORDS.add(new ArrayList<>()); // verbs
+        WORDS.add(new ArrayList<>()); // adjectives
+        WORDS.add(new ArrayList<>()); // adverbs
+        WORDS.add(new ArrayList<>()); // names
+        WORDS.add(new ArrayList<>()); // places
+    }
+
+    /**
+     * Freezes the word bank so it can be shared between threads.
+     * The word lists are deduplicated into a compact WordStore and
+     * replaced with unmodifiable views of it.
+     */
+    protected void freeze() {
+        wordStore = new WordStore(WORDS);
+        for (int i = 0; i < WORDS.size(); i++) {
+            WORDS.set(i, wordStore.slice(i));
+        }
+    }
+
+    /**
+     * Sets the sampling weights of one word type and rebuilds only that type's
+     * alias table. Words are drawn uniformly until weights are set. Weights of
+     * a shared themed bank are set through WordBankRegistry.setWeights(), which
+     * also rebuilds the theme tables.
+     * Must be called after freeze(), since freezing removes duplicates and reindexes.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @param typeWeights One non-negative weight per word of the type, or null for uniform.
+     */
+    protected synchronized void setWeights(int type, double[] typeWeights) {
+        double[][] newWeights = weights.clone();
+        AliasTable[] newTables = aliasTables.clone();
+        if (typeWeights == null) {
+            newWeights[type] = null;
+            newTables[type] = null;
+        } else {
+            if (typeWeights.length != getWordCount(type)) {
+                throw new IllegalArgumentException("Expected " + getWordCount(type) + " " +
+                        WORD_TYPES.get(type) + " weights, got " + typeWeights.length);
+            }
+            newWeights[type] = typeWeights.clone();
+            newTables[type] = new AliasTable(typeWeights);
+        }
+        weights = newWeights;
+        aliasTables = newTables;
+    }
+
+    /**
+     * Sets the sampling weight of a single word. Words without a weight count as 1.
+     * Only the alias table of the word's type is rebuilt.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @param word The word to weight.
+     * @param weight The new non-negative weight.
+     */
+    protected synchronized void setWeight(int type, String word, double weight) {
+        int index = WORDS.get(type).indexOf(word);
+        if (index < 0) {
+            throw new IllegalArgumentException("No " + WORD_TYPES.get(type) + " '" + word + "' in word bank");
+        }
+        double[] typeWeights = weights[type];
+        if (typeWeights == null) {
+            typeWeights = new double[getWordCount(type)];
+            Arrays.fill(typeWeights, 1.0);
+        } else {
+            typeWeights = typeWeights.clone();
+        }
+        typeWeights[index] = weight;
+        setWeights(type, typeWeights);
+    }
+
+    /**
+     * Returns the sampling weight of a word.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @param index Index of the word within its type.
+     * @return The word's weight, 1 if the type is sampled uniformly.
+     */
+    protected double getWeight(int type, int index) {
+        double[] typeWeights = weights[type];
+        return typeWeights == null ? 1.0 : typeWeights[index];
+    }
+
+    /**
+     * Returns the total sampling weight of a word type, used to weight
+     * themes against each other when drawing from any theme.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @return Sum of the weights of the type, or its word count if unweighted.
+     */
+    protected double getTotalWeight(int type) {
+        double[] typeWeights = weights[type];
+        if (typeWeights == null) {
+            return getWordCount(type);
+        }
+        double total = 0;
+        for (double weight : typeWeights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    /**
+     * Retrieves the compact storage of a frozen word bank.
+     * @return The word store, or null if the bank has not been frozen.
+     */
+    protected WordStore getWordStore() {
+        return wordStore;
+    }
+
+    /**
+     * Retrieves the list of words of one word type from the word bank.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @return List of words of that type.
+     */
+    protected List<String> getWords(int type) {
+        return WORDS.get(type);
+    }
+
+    /**
+     * Retrieves the list of nouns from the word bank.
+     * @return List of nouns.
+     */
+    protected List<String> getNouns() {
+        return WORDS.getFirst();
+    }
+
+    /**
+     * Retrieves the list of verbs from the word bank.
+     * @return List of verbs.
+     */
+    protected List<String> getVerbs() {
+        return WORDS.get(1);
+    }
+
+    /**
+     * Retrieves the list of adjectives from the word bank.
+     * @return List of adjectives.
+     */
+    protected List<String> getAdjectives() {
+        return WORDS.get(2);
+    }
+
+    /**
+     * Retrieves the list of adverbs from the word bank.
+     * @return List of adverbs.
+     */
+    protected List<String> getAdverbs() {
+        return WORDS.get(3);
+    }
+
+    /**
+     * Retrieves the list of names of people from the word bank.
+     * @return List of names.
+     */
+    protected List<String> getNames() {
+        return WORDS.get(NAME);
+    }
+
+    /**
+     * Retrieves the list of places from the word bank.
+     * @return List of places.
+     */
+    protected List<String> getPlaces() {
+        return WORDS.get(PLACE);
+    }
+
+    /**
+     * Retrieves a random noun from the word bank.
+     * @return Random noun.
+     */
+    protected String getRandomNoun() {
+        List<String> nouns = getNouns();
+        return getRandomElement(nouns);
+    }
+
+    /**
+     * Retrieves a random verb from the word bank.
+     * @return Random verb.
+     */
+    protected String getRandomVerb() {
+        List<String> verbs = getVerbs();
+        return getRandomElement(verbs);
+    }
+
+    /**
+     * Retrieves a random adjective from the word bank.
+     * @return Random adjective.
+     */
+    protected String getRandomAdjective() {
+        List<String> adjectives = getAdjectives();
+        return getRandomElement(adjectives);
+    }
+
+    /**
+     * Retrieves a random adverb from the word bank.
+     * @return Random adverb.
+     */
+    protected String getRandomAdverb() {
+        List<String> adverbs = getAdverbs();
+        return getRandomElement(adverbs);
+    }
+
+    /**
+     * Retrieves a random noun from any theme-specific word bank.
+     * @return Random noun from any theme.
+     */
+    protected String getRandomNounFromAny() {
+        return getRandomWordFromAny(NOUN);
+    }
+
+    /**
+     * Retrieves a random verb from any theme-specific word bank.
+     * @return Random verb from any theme.
+     */
+    protected String getRandomVerbFromAny() {
+        return getRandomWordFromAny(VERB);
+    }
+
+    /**
+     * Retrieves a random adjective from any theme-specific word bank.
+     * @return Random adjective from any theme.
+     */
+    protected String getRandomAdjectiveFromAny() {
+        return getRandomWordFromAny(ADJECTIVE);
+    }
+
+    /**
+     * Retrieves a random adverb from any theme-specific word bank.
+     * @return Random adverb from any theme.
+     */
+    protected String getRandomAdverbFromAny() {
+        return getRandomWordFromAny(ADVERB);
+    }
+
+    /**
+     * Retrieves a random word of the given type from the word bank.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @return Random word of that type.
+     */
+    protected String getRandomWord(int type) {
+        return getRandomWord(type, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Retrieves a random word of the given type, drawn with the given generator.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @param random The random generator used for the draw.
+     * @return Random word of that type.
+     */
+    protected String getRandomWord(int type, RandomGenerator random) {
+        return getWord(type, randomIndex(type, random));
+    }
+
+    /**
+     * Draws a random word index for every entry of a word type array in one pass,
+     * honoring word weights.
+     * Together with getWord() this picks all the words of a Mad Lib without
+     * allocating a list or an iterator per word.
+     * @param types The word type of each word to draw.
+     * @param random The random generator used for the draws.
+     * @param indices Array filled with one index per type; -1 where the type has no words.
+     */
+    protected void sampleIndices(int[] types, RandomGenerator random, int[] indices) {
+        for (int i = 0; i < types.length; i++) {
+            indices[i] = randomIndex(types[i], random);
+        }
+    }
+
+    /**
+     * Draws a random word index of a type, through the type's alias table if it is weighted.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @param random The random generator used for the draw.
+     * @return Index of the drawn word, or -1 if the type has no words.
+     */
+    protected int randomIndex(int type, RandomGenerator random) {
+        AliasTable aliasTable = aliasTables[type];
+        if (aliasTable != null) {
+            return aliasTable.sample(random);
+        }
+        int size = getWordCount(type);
+        return size == 0 ? -1 : random.nextInt(size);
+    }
+
+    /**
+     * Retrieves a word by type and index.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @param index Index of the word within its type, or -1.
+     * @return The word, or null if the index is -1.
+     */
+    protected String getWord(int type, int index) {
+        if (index < 0) {
+            return null;
+        }
+        WordStore store = wordStore;
+        return store == null ? WORDS.get(type).get(index) : store.word(type, index);
+    }
+
+    /**
+     * Retrieves a form of a word by type and index. Frozen banks read the form
+     * precomputed at load time; mapped file banks inflect the word on the spot.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @param index Index of the word within its type.
+     * @param form The form of the word.
+     * @return The word in that form.
+     */
+    protected String getWord(int type, int index, Inflector.Form form) {
+        WordStore store = wordStore;
+        return store == null ? Inflector.inflect(WORDS.get(type).get(index), form) : store.word(type, index, form);
+    }
+
+    /**
+     * Checks whether a word takes "an" rather than "a".
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @param index Index of the word within its type.
+     * @return True if the word takes "an".
+     */
+    protected boolean takesAn(int type, int index) {
+        WordStore store = wordStore;
+        return store == null ? Inflector.takesAn(WORDS.get(type).get(index)) : store.takesAn(type, index);
+    }
+
+    /**
+     * Returns the number of words of a type.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @return Word count of that type.
+     */
+    protected int getWordCount(int type) {
+        WordStore store = wordStore;
+        return store == null ? WORDS.get(type).size() : store.size(type);
+    }
+
+    /**
+     * Retrieves a random word of the given type from any theme-specific word bank.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @return Random word of that type from any theme.
+     */
+    protected String getRandomWordFromAny(int type) {
+        return getRandomWordFromAny(type, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Retrieves a random word of the given type from any theme-specific word bank,
+     * drawn with the given generator.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @param random The random generator used for the draws.
+     * @return Random word of that type from any theme.
+     */
+    protected String getRandomWordFromAny(int type, RandomGenerator random) {
+        WordBank wordBank = WordBankRegistry.getRandomThemedBank(type, random);
+        return wordBank.getRandomWord(type, random);
+    }
+
+    /**
+     * Retrieves a random element from a given list.
+     * @param list The list from which to retrieve the random element.
+     * @return Random element from the list.
+     */
+    protected String getRandomElement(List<String> list) {
+        return getRandomElement(list, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Retrieves a random element from a given list, drawn with the given generator.
+     * @param list The list from which to retrieve the random element.
+     * @param random The random generator used for the draw.
+     * @return Random element from the list.
+     */
+    protected String getRandomElement(List<String> list, RandomGenerator random) {
+        if (list.isEmpty()) {
+            return null;
+        }
+        int randomIndex = random.nextInt(list.size());
+        return list.get(randomIndex);
+    }
+}
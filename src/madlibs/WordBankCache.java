@@ -0,0 +1,168 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WordBankCache class loads theme word banks on first request and keeps
+ * the most recently used ones in a size-bounded LRU cache.
+ * Concurrent first requests for the same theme share a single load.
+ */
+public final class WordBankCache {
+    private final int maxSize;
+    private final Loader loader;
+    private final Map<String, CompletableFuture<WordBank>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * Loader interface loads the word bank of one theme.
+     */
+    @FunctionalInterface
+    protected interface Loader {
+        /**
+         * Loads a theme's word bank.
+         * @param theme The theme to load.
+         * @return The word bank, or null if the theme does not exist.
+         */
+        WordBank load(String theme) throws IOException;
+    }
+
+    /**
+     * Stats record is a snapshot of the cache counters.
+     * @param hits Requests served from the cache, including ones that waited on a load.
+     * @param misses Requests that started a load.
+     * @param coalesced Hits that waited on a load started by another request.
+     * @param evictions Themes evicted to stay within the size bound.
+     * @param loads Loads completed, successfully or not.
+     * @param totalLoadNanos Time spent loading, in nanoseconds.
+     * @param size Themes currently cached.
+     */
+    protected record Stats(long hits, long misses, long coalesced, long evictions,
+                           long loads, long totalLoadNanos, int size) {
+    }
+
+    /**
+     * Constructor for WordBankCache class.
+     * @param maxSize The maximum number of themes kept in memory.
+     * @param loader The loader used for themes that are not cached.
+     */
+    protected WordBankCache(int maxSize, Loader loader) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.loader = loader;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<WordBank>> eldest) {
+                if (size() > WordBankCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Retrieves a theme's word bank, loading it if it is not cached.
+     * If another thread is already loading the theme, waits for that load.
+     * @param theme The theme to retrieve.
+     * @return The word bank, or null if the theme does not exist.
+     */
+    protected WordBank get(String theme) {
+        CompletableFuture<WordBank> future;
+        boolean owner = false;
+        synchronized (entries) {
+            future = entries.get(theme);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                entries.put(theme, future);
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            misses.increment();
+            load(theme, future);
+        } else {
+            hits.increment();
+            if (!future.isDone()) {
+                coalesced.increment();
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException(cause);
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Loads a theme and completes its future. Failed loads are removed
+     * from the cache so the next request tries again.
+     * @param theme The theme to load.
+     * @param future The future waiting requests are joined on.
+     */
+    private void load(String theme, CompletableFuture<WordBank> future) {
+        long start = System.nanoTime();
+        try {
+            future.complete(loader.load(theme));
+        } catch (IOException | RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(theme, future);
+            }
+            future.completeExceptionally(e);
+        } finally {
+            loadNanos.add(System.nanoTime() - start);
+            loads.increment();
+        }
+    }
+
+    /**
+     * Lists the word banks that are cached and fully loaded. Themes still
+     * loading, or that do not exist, are left out.
+     * @return The loaded word banks by theme, in least recently used order.
+     */
+    protected Map<String, WordBank> getLoaded() {
+        Map<String, WordBank> loaded = new LinkedHashMap<>();
+        synchronized (entries) {
+            for (Map.Entry<String, CompletableFuture<WordBank>> entry : entries.entrySet()) {
+                CompletableFuture<WordBank> future = entry.getValue();
+                if (future.isDone() && !future.isCompletedExceptionally() && future.join() != null) {
+                    loaded.put(entry.getKey(), future.join());
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Takes a snapshot of the cache counters.
+     * @return Current cache stats.
+     */
+    protected Stats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), coalesced.sum(), evictions.sum(),
+                loads.sum(), loadNanos.sum(), size);
+    }
+}
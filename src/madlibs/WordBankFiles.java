@@ -0,0 +1,371 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * WordBankFiles class loads word banks from data files instead of hard-coded classes.
+ * Two formats are supported:
+ * <ul>
+ *     <li>Text (.txt): one word per line under [nouns], [verbs], [adjectives],
+ *     [adverbs], [names] and [places] section headers, optionally followed by a
+ *     sampling weight, as in "kraken = 3". Blank lines and lines starting with #
+ *     are ignored, and sections may be left out.</li>
+ *     <li>Binary (.wbin): a header, a table of word offsets and the UTF-8 bytes of
+ *     every word, followed by the word weights in version 2 files. The file is
+ *     memory-mapped and words are read straight from the mapping by offset,
+ *     so loading does no parsing at all. Files written before names and places
+ *     were added hold four word types and still load, with no names or places.</li>
+ * </ul>
+ * The theme of a word bank file is its file name without the extension.
+ */
+public final class WordBankFiles {
+    protected static final String TEXT_EXTENSION = ".txt";
+    protected static final String BINARY_EXTENSION = ".wbin";
+    private static final int MAGIC = 0x4D4C5742; // "MLWB"
+    private static final int VERSION = 1;
+    private static final int WEIGHTED_VERSION = 2;
+    private static final List<String> SECTIONS = List.of("[nouns]", "[verbs]", "[adjectives]", "[adverbs]",
+            "[names]", "[places]");
+    private static final int MIN_TYPE_COUNT = 4;
+
+    private WordBankFiles() {
+    }
+
+    /**
+     * Converts a text word bank file to the binary format.
+     * Usage: WordBankFiles input.txt output.wbin
+     * @param args The input and output paths.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: WordBankFiles <input" + TEXT_EXTENSION + "> <output" +
+                    BINARY_EXTENSION + ">");
+            System.exit(2);
+        }
+        writeBinary(Path.of(args[1]), loadText(Path.of(args[0])));
+    }
+
+    /**
+     * Loads a word bank file, choosing the format by file extension.
+     * @param file The word bank file.
+     * @return The loaded word bank, ready to be shared between threads.
+     */
+    protected static WordBank load(Path file) throws IOException {
+        return file.getFileName().toString().endsWith(BINARY_EXTENSION) ? mapBinary(file) : loadText(file);
+    }
+
+    /**
+     * Returns the theme name of a word bank file.
+     * @param file The word bank file.
+     * @return The file name without its extension, in lower case.
+     */
+    protected static String themeOf(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return (dot > 0 ? name.substring(0, dot) : name).toLowerCase();
+    }
+
+    /**
+     * Loads a text word bank file. The words are deduplicated and
+     * interned into a frozen WordStore.
+     * @param file The text word bank file.
+     * @return The loaded word bank.
+     */
+    protected static WordBank loadText(Path file) throws IOException {
+        List<List<String>> wordLists = new ArrayList<>();
+        List<Map<String, Double>> weightMaps = new ArrayList<>();
+        for (int i = 0; i < SECTIONS.size(); i++) {
+            wordLists.add(new ArrayList<>());
+            weightMaps.add(new HashMap<>());
+        }
+        int section = -1;
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            String word = line.strip();
+            if (word.isEmpty() || word.startsWith("#")) {
+                continue;
+            }
+            if (word.startsWith("[")) {
+                section = SECTIONS.indexOf(word.toLowerCase());
+                if (section < 0) {
+                    throw new IOException(file + ":" + lineNumber + ": unknown section " + word);
+                }
+            } else if (section < 0) {
+                throw new IOException(file + ":" + lineNumber + ": word before the first section");
+            } else {
+                int equals = word.lastIndexOf('=');
+                if (equals >= 0) {
+                    double weight = parseWeight(word.substring(equals + 1).strip(), file, lineNumber);
+                    word = word.substring(0, equals).strip();
+                    weightMaps.get(section).put(word, weight);
+                }
+                wordLists.get(section).add(word);
+            }
+        }
+        WordBank wordBank = new WordBank(wordLists);
+        wordBank.freeze();
+        for (int type = 0; type < SECTIONS.size(); type++) {
+            Map<String, Double> weightMap = weightMaps.get(type);
+            if (!weightMap.isEmpty()) {
+                List<String> words = wordBank.getWords(type);
+                double[] weights = new double[words.size()];
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] = weightMap.getOrDefault(words.get(i), 1.0);
+                }
+                wordBank.setWeights(type, weights);
+            }
+        }
+        return wordBank;
+    }
+
+    /**
+     * Parses the weight of a word in a text word bank file.
+     * @param value The text after the '=' sign.
+     * @param file The file being read, for error messages.
+     * @param lineNumber The line being read, for error messages.
+     * @return The weight.
+     */
+    private static double parseWeight(String value, Path file, int lineNumber) throws IOException {
+        try {
+            double weight = Double.parseDouble(value);
+            if (weight >= 0 && Double.isFinite(weight)) {
+                return weight;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IOException(file + ":" + lineNumber + ": invalid weight " + value);
+    }
+
+    /**
+     * Writes a word bank in the text format.
+     * @param file The file to write.
+     * @param wordBank The word bank to write.
+     */
+    protected static void writeText(Path file, WordBank wordBank) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int type = 0; type < SECTIONS.size(); type++) {
+                if (type > 0) {
+                    writer.newLine();
+                }
+                writer.write(SECTIONS.get(type));
+                writer.newLine();
+                List<String> words = wordBank.getWords(type);
+                for (int i = 0; i < words.size(); i++) {
+                    writer.write(words.get(i));
+                    double weight = wordBank.getWeight(type, i);
+                    if (weight != 1.0) {
+                        writer.write(" = " + weight);
+                    }
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a word bank in the binary format.
+     * Layout (big-endian): magic, version, type count, the first word index of
+     * each type plus the total word count, the byte offset of each word plus the
+     * end offset, then the UTF-8 bytes of every word back to back. If any word
+     * is weighted, the file is version 2 and ends with one float weight per word.
+     * @param file The file to write.
+     * @param wordBank The word bank to write.
+     */
+    protected static void writeBinary(Path file, WordBank wordBank) throws IOException {
+        List<byte[]> encoded = new ArrayList<>();
+        List<Float> weights = new ArrayList<>();
+        boolean weighted = false;
+        int[] typeStarts = new int[SECTIONS.size() + 1];
+        for (int type = 0; type < SECTIONS.size(); type++) {
+            List<String> words = wordBank.getWords(type);
+            for (int i = 0; i < words.size(); i++) {
+                encoded.add(words.get(i).getBytes(StandardCharsets.UTF_8));
+                float weight = (float) wordBank.getWeight(type, i);
+                weights.add(weight);
+                weighted |= weight != 1.0f;
+            }
+            typeStarts[type + 1] = encoded.size();
+        }
+
+        int headerInts = 3 + typeStarts.length + encoded.size() + 1;
+        int dataLength = 0;
+        for (byte[] word : encoded) {
+            dataLength += word.length;
+        }
+        int weightLength = weighted ? weights.size() * Float.BYTES : 0;
+        ByteBuffer buffer = ByteBuffer.allocate(headerInts * Integer.BYTES + dataLength + weightLength);
+        buffer.putInt(MAGIC).putInt(weighted ? WEIGHTED_VERSION : VERSION).putInt(SECTIONS.size());
+        for (int typeStart : typeStarts) {
+            buffer.putInt(typeStart);
+        }
+        int offset = 0;
+        for (byte[] word : encoded) {
+            buffer.putInt(offset);
+            offset += word.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] word : encoded) {
+            buffer.put(word);
+        }
+        if (weighted) {
+            for (float weight : weights) {
+                buffer.putFloat(weight);
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(buffer.array());
+        }
+    }
+
+    /**
+     * Memory-maps a binary word bank file. Only the header is validated;
+     * words are decoded from the mapping when they are first drawn. Weights of
+     * version 2 files are read into alias tables.
+     * @param file The binary word bank file.
+     * @return The mapped word bank.
+     */
+    protected static WordBank mapBinary(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < 3 * Integer.BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + ": not a word bank file");
+        }
+        int version = buffer.getInt(Integer.BYTES);
+        if (version != VERSION && version != WEIGHTED_VERSION) {
+            throw new IOException(file + ": unsupported version " + version);
+        }
+        int typeCount = buffer.getInt(2 * Integer.BYTES);
+        if (typeCount < MIN_TYPE_COUNT || typeCount > SECTIONS.size()) {
+            throw new IOException(file + ": expected " + MIN_TYPE_COUNT + " to " + SECTIONS.size() +
+                    " word types, got " + typeCount);
+        }
+        int typeTable = 3 * Integer.BYTES;
+        int offsetTable = typeTable + (typeCount + 1) * Integer.BYTES;
+        if (offsetTable > buffer.capacity()) {
+            throw new IOException(file + ": truncated word bank file");
+        }
+        int wordCount = buffer.getInt(offsetTable - Integer.BYTES);
+        long dataStart = offsetTable + (wordCount + 1L) * Integer.BYTES;
+        if (wordCount < 0 || dataStart > buffer.capacity()) {
+            throw new IOException(file + ": truncated word bank file");
+        }
+        int dataLength = buffer.getInt(offsetTable + wordCount * Integer.BYTES);
+        long weightStart = dataStart + dataLength;
+        long end = weightStart + (version == WEIGHTED_VERSION ? (long) wordCount * Float.BYTES : 0);
+        if (dataLength < 0 || end > buffer.capacity()) {
+            throw new IOException(file + ": truncated word bank file");
+        }
+
+        int[] typeStarts = new int[typeCount + 1];
+        for (int type = 0; type <= typeCount; type++) {
+            typeStarts[type] = buffer.getInt(typeTable + type * Integer.BYTES);
+        }
+        for (int type = 0; type < typeCount; type++) {
+            if (typeStarts[type] < 0 || typeStarts[type] > typeStarts[type + 1]) {
+                throw new IOException(file + ": invalid word range " + typeStarts[type] + " to " +
+                        typeStarts[type + 1] + " for " + SECTIONS.get(type));
+            }
+        }
+        List<List<String>> wordLists = new ArrayList<>();
+        for (int type = 0; type < typeCount; type++) {
+            wordLists.add(new MappedWordList(buffer, offsetTable, (int) dataStart, typeStarts[type],
+                    typeStarts[type + 1]));
+        }
+        while (wordLists.size() < SECTIONS.size()) {
+            wordLists.add(List.of());
+        }
+        WordBank wordBank = new WordBank(wordLists);
+        if (version == WEIGHTED_VERSION) {
+            for (int type = 0; type < typeCount; type++) {
+                if (wordLists.get(type).isEmpty()) {
+                    continue;
+                }
+                double[] weights = new double[wordLists.get(type).size()];
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] = buffer.getFloat((int) weightStart + (typeStarts[type] + i) * Float.BYTES);
+                }
+                wordBank.setWeights(type, weights);
+            }
+        }
+        return wordBank;
+    }
+
+    /**
+     * MappedWordList class is a read-only list of words backed by a mapped word bank file.
+     * The first get() of a word reads its offsets from the offset table and decodes its
+     * bytes, using absolute reads only; the decoded word is kept, so later draws of it
+     * do not allocate. Only drawn words are held on the heap, at the cost of one
+     * reference per word for the cache. Two threads may decode the same word at once,
+     * which is harmless since both get equal immutable Strings, so the list can be
+     * shared between threads.
+     */
+    private static final class MappedWordList extends AbstractList<String> implements RandomAccess {
+        private final MappedByteBuffer buffer;
+        private final int offsetTable;
+        private final int dataStart;
+        private final int first;
+        private final int size;
+        private final String[] decoded;
+
+        /**
+         * Constructor for MappedWordList class.
+         * @param buffer The mapped file.
+         * @param offsetTable Byte position of the word offset table.
+         * @param dataStart Byte position of the word data.
+         * @param first Index of the list's first word in the offset table.
+         * @param last Index just past the list's last word.
+         */
+        private MappedWordList(MappedByteBuffer buffer, int offsetTable, int dataStart, int first, int last) {
+            this.buffer = buffer;
+            this.offsetTable = offsetTable;
+            this.dataStart = dataStart;
+            this.first = first;
+            this.size = last - first;
+            this.decoded = new String[size];
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            String word = decoded[index];
+            if (word == null) {
+                int entry = offsetTable + (first + index) * Integer.BYTES;
+                int start = buffer.getInt(entry);
+                int end = buffer.getInt(entry + Integer.BYTES);
+                byte[] bytes = new byte[end - start];
+                buffer.get(dataStart + start, bytes);
+                word = new String(bytes, StandardCharsets.UTF_8);
+                decoded[index] = word;
+            }
+            return word;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
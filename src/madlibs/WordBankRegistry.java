@@ -0,0 +1,254 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+import java.util.regex.Pattern;
+
+/**
+ * WordBankRegistry class holds one shared instance of every themed word bank.
+ * Banks are built once when the registry is first used and frozen afterwards,
+ * so they can be looked up from any thread without rebuilding their word lists.
+ * Themes beyond the built-in ones come from an optional catalog directory of
+ * word bank files, loaded on first use into a bounded WordBankCache. The catalog
+ * can be set with the madlibs.words.dir and madlibs.words.cacheSize system properties.
+ */
+public final class WordBankRegistry {
+    private static final WordBank SPACE = freeze(new SpaceWordBank());
+    private static final WordBank WESTERN = freeze(new WesternWordBank());
+    private static final WordBank PIRATE = freeze(new PirateWordBank());
+    private static final WordBank ALL = freeze(new WordBank());
+    private static final List<WordBank> THEMED_BANKS = List.of(SPACE, WESTERN, PIRATE);
+    private static final Map<String, WordBank> BANKS_BY_THEME = Map.of(
+            "space", SPACE,
+            "western", WESTERN,
+            "pirate", PIRATE,
+            "all", ALL
+    );
+
+    private static final String CATALOG_PROPERTY = "madlibs.words.dir";
+    private static final String CACHE_SIZE_PROPERTY = "madlibs.words.cacheSize";
+    protected static final int DEFAULT_CACHE_SIZE = 64;
+    private static final Pattern THEME_NAME = Pattern.compile("[a-z0-9_-]+");
+
+    private static volatile AliasTable[] themeTables = buildThemeTables();
+    private static volatile Path catalogDirectory;
+    private static volatile WordBankCache catalog;
+
+    static {
+        String directory = System.getProperty(CATALOG_PROPERTY);
+        if (directory != null) {
+            useCatalog(Path.of(directory), Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE));
+        }
+    }
+
+    private WordBankRegistry() {
+    }
+
+    /**
+     * Uses a directory of word bank files as the theme catalog.
+     * A theme's file is named after it, with a .wbin or .txt extension.
+     * Replaces any previous catalog and its cached banks.
+     * @param directory The catalog directory.
+     * @param maxThemes The maximum number of catalog themes kept in memory.
+     */
+    protected static synchronized void useCatalog(Path directory, int maxThemes) {
+        catalog = new WordBankCache(maxThemes, theme -> loadFromCatalog(directory, theme));
+        catalogDirectory = directory;
+    }
+
+    /**
+     * Checks whether a theme exists, either built in or in the catalog.
+     * Catalog themes are not loaded by this check.
+     * @param theme The theme to check.
+     * @return True if a word bank exists for the theme.
+     */
+    protected static boolean hasTheme(String theme) {
+        String key = theme.toLowerCase();
+        if (BANKS_BY_THEME.containsKey(key)) {
+            return true;
+        }
+        Path directory = catalogDirectory;
+        return directory != null && findThemeFile(directory, key) != null;
+    }
+
+    /**
+     * Takes a snapshot of the catalog cache counters.
+     * @return The catalog cache stats, or null if no catalog is in use.
+     */
+    protected static WordBankCache.Stats getCatalogStats() {
+        WordBankCache cache = catalog;
+        return cache == null ? null : cache.getStats();
+    }
+
+    /**
+     * Retrieves the shared word bank for a theme, loading catalog themes on first use.
+     * Unknown themes, including catalog themes whose file was removed after
+     * hasTheme() found it, throw an IllegalArgumentException instead of quietly
+     * drawing from every theme; only the "all" theme does that.
+     * @param theme The theme of the word bank (space/western/pirate/all or a catalog theme).
+     * @return The shared word bank for the theme.
+     */
+    protected static WordBank getBank(String theme) {
+        String key = theme.toLowerCase();
+        WordBank wordBank = BANKS_BY_THEME.get(key);
+        if (wordBank == null) {
+            WordBankCache cache = catalog;
+            if (cache != null && THEME_NAME.matcher(key).matches()) {
+                wordBank = cache.get(key);
+            }
+        }
+        if (wordBank == null) {
+            throw new IllegalArgumentException("Theme not found: " + theme);
+        }
+        return wordBank;
+    }
+
+    /**
+     * Retrieves the shared themed word banks, excluding the "all" bank.
+     * @return Unmodifiable list of themed word banks.
+     */
+    protected static List<WordBank> getThemedBanks() {
+        return THEMED_BANKS;
+    }
+
+    /**
+     * Retrieves a random themed word bank for drawing a word of a type.
+     * Themes are weighted by the total weight of their words of that type
+     * (their word count when unweighted), so every word across all themes
+     * has the same chance it would have in one combined bank.
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @param random The random generator used to choose the bank.
+     * @return Random themed word bank.
+     */
+    protected static WordBank getRandomThemedBank(int type, RandomGenerator random) {
+        return THEMED_BANKS.get(themeTables[type].sample(random));
+    }
+
+    /**
+     * Sets the sampling weights of one word type of a shared word bank. If the
+     * bank is a themed bank, the theme alias tables are rebuilt so the "all"
+     * theme keeps picking themes in proportion to their weights.
+     * @param theme The theme of the word bank (space/western/pirate/all or a catalog theme).
+     * @param type Index of the word type (NOUN/VERB/ADJECTIVE/ADVERB/NAME/PLACE).
+     * @param typeWeights One non-negative weight per word of the type, or null for uniform.
+     */
+    protected static synchronized void setWeights(String theme, int type, double[] typeWeights) {
+        WordBank wordBank = getBank(theme);
+        wordBank.setWeights(type, typeWeights);
+        if (THEMED_BANKS.contains(wordBank)) {
+            themeTables = buildThemeTables();
+        }
+    }
+
+    /**
+     * Builds one alias table per word type over the themed banks.
+     * @return The theme alias tables, indexed by word type.
+     */
+    private static AliasTable[] buildThemeTables() {
+        AliasTable[] tables = new AliasTable[WordBank.WORD_TYPES.size()];
+        for (int type = 0; type < tables.length; type++) {
+            double[] themeWeights = new double[THEMED_BANKS.size()];
+            for (int i = 0; i < themeWeights.length; i++) {
+                themeWeights[i] = THEMED_BANKS.get(i).getTotalWeight(type);
+            }
+            tables[type] = new AliasTable(themeWeights);
+        }
+        return tables;
+    }
+
+    /**
+     * MemoryUsage record is an estimate of the memory held by one word bank.
+     * @param words The number of words in the bank.
+     * @param indexBytes Bytes of the bank's index arrays.
+     * @param wordBytes Bytes of every distinct word the bank references.
+     */
+    protected record MemoryUsage(int words, long indexBytes, long wordBytes) {
+    }
+
+    /**
+     * Estimates the memory used by each shared word bank: the built-in banks
+     * and the catalog banks currently held by the cache.
+     * @return The estimate of each bank, by theme in name order.
+     */
+    protected static Map<String, MemoryUsage> getMemoryUsage() {
+        Map<String, WordBank> banks = new TreeMap<>(BANKS_BY_THEME);
+        WordBankCache cache = catalog;
+        if (cache != null) {
+            for (Map.Entry<String, WordBank> entry : cache.getLoaded().entrySet()) {
+                banks.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+        Map<String, MemoryUsage> usage = new TreeMap<>();
+        for (Map.Entry<String, WordBank> entry : banks.entrySet()) {
+            WordStore wordStore = entry.getValue().getWordStore();
+            usage.put(entry.getKey(), new MemoryUsage(wordStore.size(), wordStore.estimateIndexBytes(),
+                    wordStore.estimateWordBytes()));
+        }
+        return usage;
+    }
+
+    /**
+     * Prints an estimate of the memory used by each shared word bank.
+     * Word bytes count every distinct word a bank references; the pool line
+     * counts each word once, however many banks share it.
+     * @param out The stream to print to.
+     */
+    protected static void printMemoryReport(PrintStream out) {
+        out.println("Word bank memory report");
+        for (Map.Entry<String, MemoryUsage> entry : getMemoryUsage().entrySet()) {
+            MemoryUsage usage = entry.getValue();
+            out.printf("  %-8s %5d words %8d index bytes %8d word bytes%n", entry.getKey(),
+                    usage.words(), usage.indexBytes(), usage.wordBytes());
+        }
+        out.printf("  %-8s %5d words %8d bytes%n", "pool",
+                WordStore.getPoolSize(), WordStore.estimatePoolBytes());
+    }
+
+    /**
+     * Loads a theme's word bank from the catalog directory.
+     * @param directory The catalog directory.
+     * @param theme The theme to load.
+     * @return The loaded word bank, or null if the catalog has no file for the theme.
+     */
+    private static WordBank loadFromCatalog(Path directory, String theme) throws IOException {
+        Path file = findThemeFile(directory, theme);
+        return file == null ? null : WordBankFiles.load(file);
+    }
+
+    /**
+     * Finds a theme's word bank file, preferring the binary format.
+     * @param directory The catalog directory.
+     * @param theme The theme, in lower case.
+     * @return The theme's file, or null if there is none.
+     */
+    private static Path findThemeFile(Path directory, String theme) {
+        if (!THEME_NAME.matcher(theme).matches()) {
+            return null;
+        }
+        for (String extension : List.of(WordBankFiles.BINARY_EXTENSION, WordBankFiles.TEXT_EXTENSION)) {
+            Path file = directory.resolve(theme + extension);
+            if (Files.isRegularFile(file)) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Freezes a freshly built word bank before it is shared.
+     * @param wordBank The word bank to freeze.
+     * @return The same word bank, now frozen.
+     */
+    private static WordBank freeze(WordBank wordBank) {
+        wordBank.freeze();
+        return wordBank;
+    }
+}
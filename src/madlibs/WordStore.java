@@ -0,0 +1,250 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * WordStore class is the compact storage behind a frozen word bank.
+ * All words live in one array, with each word type stored as an index range.
+ * Duplicates are removed at load time, and every word is interned into a
+ * string pool shared by all stores, so common words are only held once.
+ * The pool references its words weakly: a word stays pooled only while some
+ * store uses it, so evicting a cached bank frees the words no other bank shares.
+ * <p>
+ * The inflected forms of each word (plurals of nouns, past-tense and
+ * third-person forms of verbs) and whether it takes "an" are computed once
+ * here, into side arrays indexed like the words, so sentences pick the form
+ * they need with an array read.
+ */
+public final class WordStore {
+    private static final Map<String, WeakReference<String>> POOL = new WeakHashMap<>();
+    private static final int OBJECT_HEADER_BYTES = 16;
+    private static final int STRING_BYTES = 24;
+    private static final int REFERENCE_BYTES = 4;
+
+    private final String[] words;
+    private final int[] offsets;
+    private final String[][] forms;
+    private final long[] takesAn;
+    private final List<List<String>> slices;
+
+    /**
+     * Constructor for WordStore class.
+     * Deduplicates each word list, interns the words, and packs them into one array.
+     * @param wordLists The word lists to store, one per word type.
+     */
+    protected WordStore(List<List<String>> wordLists) {
+        List<String> packed = new ArrayList<>();
+        offsets = new int[wordLists.size() + 1];
+        for (int i = 0; i < wordLists.size(); i++) {
+            Set<String> unique = new LinkedHashSet<>(wordLists.get(i));
+            for (String word : unique) {
+                packed.add(intern(word));
+            }
+            offsets[i + 1] = packed.size();
+        }
+        words = packed.toArray(new String[0]);
+
+        Inflector.Form[] allForms = Inflector.Form.values();
+        forms = new String[allForms.length][];
+        for (Inflector.Form form : allForms) {
+            int type = form.getWordType();
+            if (type < 0 || type >= wordLists.size()) {
+                continue;
+            }
+            String[] inflected = new String[size(type)];
+            for (int i = 0; i < inflected.length; i++) {
+                String word = words[offsets[type] + i];
+                String formed = Inflector.inflect(word, form);
+                inflected[i] = formed.equals(word) ? word : intern(formed);
+            }
+            forms[form.ordinal()] = inflected;
+        }
+        takesAn = new long[(words.length + Long.SIZE - 1) / Long.SIZE];
+        for (int i = 0; i < words.length; i++) {
+            if (Inflector.takesAn(words[i])) {
+                takesAn[i / Long.SIZE] |= 1L << i;
+            }
+        }
+
+        List<String> allWords = Arrays.asList(words);
+        List<List<String>> views = new ArrayList<>();
+        for (int i = 0; i < wordLists.size(); i++) {
+            views.add(Collections.unmodifiableList(allWords.subList(offsets[i], offsets[i + 1])));
+        }
+        slices = List.copyOf(views);
+    }
+
+    /**
+     * Retrieves the words of one word type.
+     * @param type Index of the word type (noun/verb/adjective/adverb/name/place).
+     * @return Unmodifiable view of the words of that type.
+     */
+    protected List<String> slice(int type) {
+        return slices.get(type);
+    }
+
+    /**
+     * Retrieves a word straight from the backing array.
+     * @param type Index of the word type (noun/verb/adjective/adverb/name/place).
+     * @param index Index of the word within its type.
+     * @return The word.
+     */
+    protected String word(int type, int index) {
+        return words[offsets[type] + index];
+    }
+
+    /**
+     * Retrieves a form of a word. Forms made from the word's own type are read
+     * from the precomputed side arrays; other forms are inflected on the spot.
+     * @param type Index of the word type (noun/verb/adjective/adverb/name/place).
+     * @param index Index of the word within its type.
+     * @param form The form of the word.
+     * @return The word in that form.
+     */
+    protected String word(int type, int index, Inflector.Form form) {
+        if (form == Inflector.Form.BASE) {
+            return words[offsets[type] + index];
+        }
+        if (form.getWordType() == type) {
+            return forms[form.ordinal()][index];
+        }
+        return Inflector.inflect(words[offsets[type] + index], form);
+    }
+
+    /**
+     * Checks whether a word takes "an" rather than "a", as computed at load time.
+     * @param type Index of the word type (noun/verb/adjective/adverb/name/place).
+     * @param index Index of the word within its type.
+     * @return True if the word takes "an".
+     */
+    protected boolean takesAn(int type, int index) {
+        int i = offsets[type] + index;
+        return (takesAn[i / Long.SIZE] & (1L << i)) != 0;
+    }
+
+    /**
+     * Returns the number of words of one word type.
+     * @param type Index of the word type (noun/verb/adjective/adverb/name/place).
+     * @return Word count of that type.
+     */
+    protected int size(int type) {
+        return offsets[type + 1] - offsets[type];
+    }
+
+    /**
+     * Returns the number of words held by the store, across all word types.
+     * @return Total word count.
+     */
+    protected int size() {
+        return words.length;
+    }
+
+    /**
+     * Estimates the bytes used by the store's own arrays, excluding the words.
+     * @return Estimated index size in bytes.
+     */
+    protected long estimateIndexBytes() {
+        long bytes = align(OBJECT_HEADER_BYTES + (long) REFERENCE_BYTES * words.length)
+                + align(OBJECT_HEADER_BYTES + (long) Integer.BYTES * offsets.length)
+                + align(OBJECT_HEADER_BYTES + (long) Long.BYTES * takesAn.length)
+                + align(OBJECT_HEADER_BYTES + (long) REFERENCE_BYTES * forms.length);
+        for (String[] inflected : forms) {
+            if (inflected != null) {
+                bytes += align(OBJECT_HEADER_BYTES + (long) REFERENCE_BYTES * inflected.length);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimates the bytes of the distinct words and inflected forms referenced by the store.
+     * Words shared with other stores are counted here too.
+     * @return Estimated word size in bytes.
+     */
+    protected long estimateWordBytes() {
+        Set<String> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(distinct, words);
+        for (String[] inflected : forms) {
+            if (inflected != null) {
+                Collections.addAll(distinct, inflected);
+            }
+        }
+        long bytes = 0;
+        for (String word : distinct) {
+            bytes += estimateBytes(word);
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the number of distinct words in the shared string pool that
+     * are still used by a store.
+     * @return Pool size.
+     */
+    protected static int getPoolSize() {
+        synchronized (POOL) {
+            return POOL.size();
+        }
+    }
+
+    /**
+     * Estimates the bytes held by the shared string pool, counting each word once.
+     * @return Estimated pool size in bytes.
+     */
+    protected static long estimatePoolBytes() {
+        long bytes = 0;
+        synchronized (POOL) {
+            for (String word : POOL.keySet()) {
+                bytes += estimateBytes(word);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the pooled instance of a word, adding it to the pool if needed.
+     * Interning only happens while a store is built, so the lock is not contended.
+     * @param word The word to intern.
+     * @return The shared instance of the word.
+     */
+    private static String intern(String word) {
+        synchronized (POOL) {
+            WeakReference<String> reference = POOL.get(word);
+            String pooled = reference == null ? null : reference.get();
+            if (pooled == null) {
+                POOL.put(word, new WeakReference<>(word));
+                pooled = word;
+            }
+            return pooled;
+        }
+    }
+
+    /**
+     * Estimates the bytes of a single compact (Latin-1) string.
+     * @param word The word to measure.
+     * @return Estimated size in bytes.
+     */
+    private static long estimateBytes(String word) {
+        return STRING_BYTES + align(OBJECT_HEADER_BYTES + word.length());
+    }
+
+    /**
+     * Rounds a size up to the 8-byte object alignment.
+     * @param bytes The unaligned size.
+     * @return The aligned size.
+     */
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
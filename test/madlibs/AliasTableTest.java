@@ -0,0 +1,77 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * AliasTableTest class checks that alias tables sample indices in proportion
+ * to their weights and refuse weights they cannot sample from.
+ */
+class AliasTableTest {
+    private static final int DRAWS = 1_000_000;
+
+    /**
+     * Draws from a table and counts how often each index comes up.
+     * @param weights The weights of the table.
+     * @return Draw count of each index.
+     */
+    private static int[] countDraws(double[] weights) {
+        AliasTable table = new AliasTable(weights);
+        SplittableRandom random = new SplittableRandom(42);
+        int[] counts = new int[table.size()];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[table.sample(random)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Each index is drawn in proportion to its weight, within a small tolerance.
+     */
+    @Test
+    void samplesInProportionToWeights() {
+        double[] weights = {1, 3, 0.5, 5.5};
+        int[] counts = countDraws(weights);
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(weights[i] / 10, counts[i] / (double) DRAWS, 0.005, "index " + i);
+        }
+    }
+
+    /**
+     * Indices of weight zero are never drawn.
+     */
+    @Test
+    void neverSamplesZeroWeights() {
+        int[] counts = countDraws(new double[]{0, 2, 0, 1, 0});
+        assertEquals(0, counts[0]);
+        assertEquals(0, counts[2]);
+        assertEquals(0, counts[4]);
+        assertEquals(DRAWS, counts[1] + counts[3]);
+    }
+
+    /**
+     * A table of one index always draws it.
+     */
+    @Test
+    void samplesSingleWeight() {
+        assertEquals(DRAWS, countDraws(new double[]{0.25})[0]);
+    }
+
+    /**
+     * Empty, all-zero, negative and non-finite weights are refused.
+     */
+    @Test
+    void rejectsInvalidWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, -1}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, Double.NaN}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AliasTable(new double[]{1, Double.POSITIVE_INFINITY}));
+    }
+}
@@ -0,0 +1,172 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BlankPlanTest class checks that a blank plan blanks exactly the requested
+ * number of slots, spread evenly across slot types, and that Mad Libs with a
+ * blank count get exactly that many blanks.
+ */
+class BlankPlanTest {
+    private static final List<CompiledTemplate> TEMPLATES = List.of(
+            CompiledTemplate.compile("The @ $ # %."),
+            CompiledTemplate.compile("^ ~ the $ at *."),
+            CompiledTemplate.compile("The $ saw the $1 and # again."),
+            CompiledTemplate.compile("Nothing happens here."),
+            CompiledTemplate.compile("+ & # near the @ *."));
+
+    /**
+     * Plans a Mad Lib of random templates and counts its blanks by slot type.
+     * @param sentenceCount The number of sentences.
+     * @param blankCount The number of blanks wanted.
+     * @param seed The seed of the templates and the plan.
+     * @param slotsByType Filled with the number of slots of each type.
+     * @return The number of planned blanks of each type.
+     */
+    private static long[] plan(int sentenceCount, int blankCount, long seed, long[] slotsByType) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<CompiledTemplate> templates = new ArrayList<>();
+        for (int i = 0; i < sentenceCount; i++) {
+            CompiledTemplate template = TEMPLATES.get(random.nextInt(TEMPLATES.size()));
+            templates.add(template);
+            BlankPlan.countSlots(template, slotsByType);
+        }
+        BlankPlan plan = BlankPlan.of(slotsByType, blankCount, random.split());
+        long[] blanksByType = new long[slotsByType.length];
+        long total = 0;
+        for (CompiledTemplate template : templates) {
+            BitSet blanks = plan.nextSentence(template);
+            for (int slot = blanks.nextSetBit(0); slot >= 0; slot = blanks.nextSetBit(slot + 1)) {
+                assertTrue(template.getReference(slot) < 0, "Repeated slots are never planned");
+                blanksByType[template.getSlotType(slot).getId()]++;
+                total++;
+            }
+        }
+        assertEquals(plan.getBlankCount(), total);
+        return blanksByType;
+    }
+
+    /**
+     * Every plan blanks exactly the requested number of slots, or every slot
+     * if there are fewer.
+     */
+    @Test
+    void blanksExactlyTheRequestedCount() {
+        for (int sentenceCount : new int[]{0, 1, 3, 25, 400}) {
+            for (int blankCount : new int[]{0, 1, 2, 7, 30, 1000, Integer.MAX_VALUE}) {
+                for (long seed = 0; seed < 20; seed++) {
+                    long[] slotsByType = new long[SlotRegistry.getSlotTypes().size()];
+                    long[] blanksByType = plan(sentenceCount, blankCount, seed, slotsByType);
+                    long slots = 0;
+                    long blanks = 0;
+                    for (int type = 0; type < slotsByType.length; type++) {
+                        assertTrue(blanksByType[type] <= slotsByType[type]);
+                        slots += slotsByType[type];
+                        blanks += blanksByType[type];
+                    }
+                    assertEquals(Math.min(blankCount, slots), blanks);
+                }
+            }
+        }
+    }
+
+    /**
+     * Types with slots to spare get shares of the blanks that differ by at most one.
+     */
+    @Test
+    void spreadsBlanksEvenlyAcrossTypes() {
+        for (long seed = 0; seed < 50; seed++) {
+            long[] slotsByType = new long[SlotRegistry.getSlotTypes().size()];
+            long[] blanksByType = plan(40, 17, seed, slotsByType);
+            long fewest = Long.MAX_VALUE;
+            long most = 0;
+            for (int type = 0; type < slotsByType.length; type++) {
+                if (blanksByType[type] < slotsByType[type]) {
+                    fewest = Math.min(fewest, blanksByType[type]);
+                }
+                most = Math.max(most, blanksByType[type]);
+            }
+            assertTrue(most - fewest <= 1, "Blanks per type should differ by at most one");
+        }
+    }
+
+    /**
+     * Every slot is equally likely to be blank.
+     */
+    @Test
+    void picksSlotsUniformly() {
+        CompiledTemplate template = CompiledTemplate.compile("$ $ $ $ $ $ $ $ $ $");
+        int[] blankCounts = new int[template.getSlotCount()];
+        int plans = 20_000;
+        for (long seed = 0; seed < plans; seed++) {
+            long[] slotsByType = new long[SlotRegistry.getSlotTypes().size()];
+            BlankPlan.countSlots(template, slotsByType);
+            BitSet blanks = BlankPlan.of(slotsByType, 3, new SplittableRandom(seed)).nextSentence(template);
+            assertEquals(3, blanks.cardinality());
+            blanks.stream().forEach(slot -> blankCounts[slot]++);
+        }
+        for (int count : blankCounts) {
+            assertEquals(plans * 3 / 10.0, count, plans * 0.02);
+        }
+    }
+
+    /**
+     * A plan hands out the same set for every sentence, cleared of the
+     * previous sentence's blanks.
+     */
+    @Test
+    void reusesOneSetPerPlan() {
+        CompiledTemplate template = CompiledTemplate.compile("$ $ $ $");
+        long[] slotsByType = new long[SlotRegistry.getSlotTypes().size()];
+        BlankPlan.countSlots(template, slotsByType);
+        BlankPlan.countSlots(template, slotsByType);
+        BlankPlan plan = BlankPlan.of(slotsByType, 4, new SplittableRandom(5));
+        BitSet first = plan.nextSentence(template);
+        int firstBlanks = first.cardinality();
+        BitSet second = plan.nextSentence(template);
+        assertSame(first, second);
+        assertEquals(4, firstBlanks + second.cardinality());
+    }
+
+    /**
+     * Negative blank counts are refused.
+     */
+    @Test
+    void rejectsNegativeBlankCount() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BlankPlan.of(new long[SlotRegistry.getSlotTypes().size()], -1, new SplittableRandom(0)));
+    }
+
+    /**
+     * Generated Mad Libs take one response per planned blank, whether they
+     * are built one sentence at a time or in parallel.
+     */
+    @Test
+    void generatesMadLibsWithExactBlankCount() {
+        for (boolean noRepeat : new boolean[]{false, true}) {
+            MadLibFactory factory = new MadLibFactory(new MadLibSpec("pirate", 25, 0, 10, noRepeat, 3));
+            for (long seed = 0; seed < 20; seed++) {
+                MadLib madLib = factory.generateMadLib(seed);
+                assertEquals(10, madLib.getResponseCount());
+                MadLib parallel = factory.generateMadLibParallel(seed);
+                assertEquals(madLib.getSentences(), parallel.getSentences());
+                assertEquals(madLib.getBlanks(), parallel.getBlanks());
+            }
+        }
+        MadLib none = new MadLibFactory(new MadLibSpec("space", 5, 0, 0, false, 1)).generateMadLib(1);
+        assertFalse(none.getSentences().isEmpty());
+        assertEquals(0, none.getBlanks().size());
+    }
+}
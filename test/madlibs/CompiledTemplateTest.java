@@ -0,0 +1,51 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * CompiledTemplateTest class checks that escaped slot symbols compile to
+ * plain text instead of word slots.
+ */
+class CompiledTemplateTest {
+    /**
+     * Every escaped slot symbol stays in the literal text, without its backslash.
+     */
+    @Test
+    void keepsEscapedSymbols() {
+        CompiledTemplate template = CompiledTemplate.compile("It cost \\$5 \\& \\~ \\^ \\* \\+ \\# \\@ \\%.");
+        assertEquals(0, template.getSlotCount());
+        assertEquals("It cost $5 & ~ ^ * + # @ %.", template.getLiteral(0));
+    }
+
+    /**
+     * Escaped symbols sit between real slots, and digits after an escaped symbol are not a reference.
+     */
+    @Test
+    void mixesEscapedSymbolsAndSlots() {
+        CompiledTemplate template = CompiledTemplate.compile("The $ cost \\$1 and + more $1.");
+        assertEquals(3, template.getSlotCount());
+        assertEquals("The ", template.getLiteral(0));
+        assertEquals(" cost $1 and ", template.getLiteral(1));
+        assertEquals(" more ", template.getLiteral(2));
+        assertEquals(0, template.getReference(2));
+        assertEquals(-1, template.getReference(1));
+    }
+
+    /**
+     * A doubled backslash is one plain backslash and leaves the symbol after it a slot,
+     * while a backslash before any other character is kept as written.
+     */
+    @Test
+    void keepsPlainBackslashes() {
+        CompiledTemplate template = CompiledTemplate.compile("C:\\\\$ and \\n");
+        assertEquals(1, template.getSlotCount());
+        assertEquals("C:\\", template.getLiteral(0));
+        assertEquals(" and \\n", template.getLiteral(1));
+        assertFalse(template.hasReferences());
+    }
+}
@@ -0,0 +1,111 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * InflectorTest class checks the word forms and articles the Inflector
+ * builds for word bank words and player responses.
+ */
+class InflectorTest {
+    /**
+     * Regular nouns follow the spelling rules, including nouns ending in -s.
+     */
+    @Test
+    void pluralizesRegularNouns() {
+        assertEquals("parrots", Inflector.plural("parrot"));
+        assertEquals("lenses", Inflector.plural("lens"));
+        assertEquals("buses", Inflector.plural("bus"));
+        assertEquals("cutlasses", Inflector.plural("cutlass"));
+        assertEquals("boxes", Inflector.plural("box"));
+        assertEquals("torches", Inflector.plural("torch"));
+        assertEquals("galaxies", Inflector.plural("galaxy"));
+        assertEquals("days", Inflector.plural("day"));
+        assertEquals("black holes", Inflector.plural("black hole"));
+    }
+
+    /**
+     * Only the listed Greek nouns in -is swap it for -es; other nouns in -is take -es on the end.
+     */
+    @Test
+    void pluralizesNounsEndingInIs() {
+        assertEquals("oases", Inflector.plural("oasis"));
+        assertEquals("axes", Inflector.plural("axis"));
+        assertEquals("irises", Inflector.plural("iris"));
+        assertEquals("trellises", Inflector.plural("trellis"));
+        assertEquals("Iroquois", Inflector.plural("Iroquois"));
+    }
+
+    /**
+     * Irregular, uncountable and already plural nouns get their listed form or stay as they are.
+     */
+    @Test
+    void pluralizesListedNouns() {
+        assertEquals("wolves", Inflector.plural("wolf"));
+        assertEquals("supernovae", Inflector.plural("supernova"));
+        assertEquals("gold", Inflector.plural("gold"));
+        assertEquals("spurs", Inflector.plural("spurs"));
+        assertEquals("gallows", Inflector.plural("gallows"));
+    }
+
+    /**
+     * Verbs get their past and third-person forms, inflecting the first part of a word of several parts.
+     */
+    @Test
+    void inflectsVerbs() {
+        assertEquals("plundered", Inflector.pastTense("plunder"));
+        assertEquals("robbed", Inflector.pastTense("rob"));
+        assertEquals("carried", Inflector.pastTense("carry"));
+        assertEquals("took", Inflector.pastTense("take"));
+        assertEquals("waged-war", Inflector.pastTense("wage-war"));
+        assertEquals("sails", Inflector.thirdPerson("sail"));
+        assertEquals("lassoes", Inflector.thirdPerson("lasso"));
+        assertEquals("has", Inflector.thirdPerson("have"));
+        assertEquals("flies", Inflector.thirdPerson("fly"));
+    }
+
+    /**
+     * Words take "an" by how they are read, not only by their first letter.
+     */
+    @Test
+    void choosesArticles() {
+        assertTrue(Inflector.takesAn("asteroid"));
+        assertTrue(Inflector.takesAn("hour"));
+        assertTrue(Inflector.takesAn("x-ray"));
+        assertTrue(Inflector.takesAn("8"));
+        assertTrue(Inflector.takesAn("18"));
+        assertTrue(Inflector.takesAn("83"));
+        assertFalse(Inflector.takesAn("unicorn"));
+        assertFalse(Inflector.takesAn("one-eyed"));
+        assertFalse(Inflector.takesAn("horse"));
+        assertFalse(Inflector.takesAn("180"));
+        assertFalse(Inflector.takesAn("[adjective]"));
+    }
+
+    /**
+     * No built-in template puts a past-tense slot where a past participle is needed,
+     * as in "had ever ~", since slots only offer the simple past.
+     */
+    @Test
+    void builtInTemplatesUseSimplePast() throws Exception {
+        TemplateCatalog catalog = TemplateFiles.loadBuiltIn();
+        for (String theme : catalog.getThemes()) {
+            TemplateCatalog.ThemeTemplates templates = catalog.getTheme(theme);
+            for (int i = 0; i < templates.size(); i++) {
+                CompiledTemplate template = templates.get(i);
+                for (int slot = 0; slot < template.getSlotCount(); slot++) {
+                    if (template.getSlotType(slot).getForm() == Inflector.Form.PAST) {
+                        String before = template.getLiteral(slot).strip().toLowerCase();
+                        assertFalse(before.matches(".*\\b(had|has|have|having|been|be|was|were)( ever| never)?"),
+                                template.toString());
+                    }
+                }
+            }
+        }
+    }
+}
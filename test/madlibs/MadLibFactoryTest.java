@@ -0,0 +1,131 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * MadLibFactoryTest class checks that responses are filled into the recorded
+ * blank positions in the form and with the article the sentence needs, and
+ * that a Mad Lib is regenerated exactly from its seed.
+ */
+class MadLibFactoryTest {
+    private static final MadLibSpec SPEC = new MadLibSpec("pirate", 2, 0.25, false, 1);
+    private static final String FIRST = "A [adjective] parrot sang.";
+    private static final String SECOND = "She [verb] a [noun] and a [noun].";
+
+    /**
+     * Builds a Mad Lib with a blank after a capital article, a verb blank after "she",
+     * and a noun blank repeated by a later blank.
+     * @return The Mad Lib.
+     */
+    private static MadLib newMadLib() {
+        int noun = SECOND.indexOf("[noun]");
+        List<BlankSpan> blanks = List.of(
+                new BlankSpan(0, 2, 11, "adjective", -1, Inflector.Form.BASE, 2),
+                new BlankSpan(1, 4, 6, "verb", -1, Inflector.Form.THIRD_PERSON, 0),
+                new BlankSpan(1, noun, 6, "noun", -1, Inflector.Form.BASE, 2),
+                new BlankSpan(1, SECOND.lastIndexOf("[noun]"), 6, "noun", 2, Inflector.Form.BASE, 2));
+        return new MadLib(SPEC, 0, List.of(FIRST, SECOND), blanks);
+    }
+
+    /**
+     * Responses take the sentence's form, replace the article in front of them, and fill repeated blanks.
+     */
+    @Test
+    void fillsResponsesInPlace() {
+        MadLib filled = new MadLibFactory(SPEC).fillBlanks(newMadLib(), List.of("angry", "sail", "eel"));
+        assertEquals(List.of("An angry parrot sang.", "She sails an eel and an eel."), filled.getSentences());
+        assertTrue(filled.getBlanks().isEmpty());
+    }
+
+    /**
+     * Blanks without a response keep their placeholder and article, at offsets moved
+     * to match the filled text, so they can be filled later.
+     */
+    @Test
+    void fillsInSeveralPasses() {
+        MadLibFactory factory = new MadLibFactory(SPEC);
+        MadLib partial = factory.fillBlanks(newMadLib(), List.of("ugly", "plunder"));
+        assertEquals(List.of("An ugly parrot sang.", "She plunders a [noun] and a [noun]."), partial.getSentences());
+        assertEquals(2, partial.getBlanks().size());
+        assertEquals(1, partial.getResponseCount());
+
+        MadLib filled = factory.fillBlanks(partial, List.of("island"));
+        assertEquals(List.of("An ugly parrot sang.", "She plunders an island and an island."),
+                filled.getSentences());
+    }
+
+    /**
+     * Filling a generated Mad Lib with one response per blank leaves no placeholder in its text.
+     */
+    @Test
+    void fillsGeneratedMadLib() {
+        MadLibFactory factory = new MadLibFactory(new MadLibSpec("all", 20, 0.5, false, 7));
+        MadLib madLib = factory.generateMadLib(7);
+        List<String> responses = Collections.nCopies(madLib.getResponseCount(), "otter");
+        MadLib filled = factory.fillBlanks(madLib, responses);
+        assertTrue(filled.getBlanks().isEmpty());
+        for (String sentence : filled.getSentences()) {
+            assertTrue(sentence.indexOf('[') < 0, sentence);
+            assertFalse(sentence.contains(" a otter") || sentence.startsWith("A otter"), sentence);
+        }
+    }
+
+    /**
+     * Checks that two Mad Libs have the same text and blanks.
+     * @param expected The original Mad Lib.
+     * @param actual The regenerated Mad Lib.
+     */
+    private static void assertSameMadLib(MadLib expected, MadLib actual) {
+        assertEquals(expected.getSpec(), actual.getSpec());
+        assertEquals(expected.getSentences(), actual.getSentences());
+        assertEquals(expected.getBlanks(), actual.getBlanks());
+    }
+
+    /**
+     * Two factories with the same seed generate the same sequence of Mad Libs.
+     */
+    @Test
+    void repeatsSeededSequence() {
+        MadLibSpec spec = new MadLibSpec("all", 8, 0.3, false, 99);
+        MadLibFactory first = new MadLibFactory(spec);
+        MadLibFactory second = new MadLibFactory(spec);
+        for (int i = 0; i < 20; i++) {
+            assertSameMadLib(first.generateMadLib(), second.generateMadLib());
+        }
+    }
+
+    /**
+     * A Mad Lib is regenerated from its spec, also after the spec goes through its id.
+     */
+    @Test
+    void replaysFromSpec() {
+        for (MadLibSpec spec : List.of(new MadLibSpec("pirate", 6, 0.5, false, 3),
+                new MadLibSpec("space", 12, 0, 7, true, 4))) {
+            MadLib madLib = new MadLibFactory(spec).generateMadLib(123456789L);
+            assertSameMadLib(madLib, MadLibFactory.replay(madLib.getSpec()));
+            assertSameMadLib(madLib, MadLibFactory.replay(MadLibSpec.fromId(madLib.getSpec().toId())));
+        }
+    }
+
+    /**
+     * Building the sentences in parallel gives the same Mad Lib as building them in order.
+     */
+    @Test
+    void generatesSameMadLibInParallel() {
+        for (MadLibSpec spec : List.of(new MadLibSpec("all", 40, 0.25, false, 5),
+                new MadLibSpec("western", 40, 0, 12, true, 6))) {
+            MadLibFactory factory = new MadLibFactory(spec);
+            for (long seed = 0; seed < 10; seed++) {
+                assertSameMadLib(factory.generateMadLib(seed), factory.generateMadLibParallel(seed));
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * MadLibRendererTest class checks the text of each output format, the word
+ * wrapping of the wrapped formats and the escaping of JSON and HTML.
+ */
+class MadLibRendererTest {
+    private static final MadLibSpec SPEC = new MadLibSpec("pirate", 2, 0.25, false, 42);
+
+    /**
+     * Builds a Mad Lib without blanks.
+     * @param sentences The sentences of the Mad Lib.
+     * @return The Mad Lib.
+     */
+    private static MadLib newMadLib(String... sentences) {
+        return new MadLib(SPEC, 0, List.of(sentences), List.of());
+    }
+
+    /**
+     * Joins lines, ending each with the system line separator.
+     * @param lines The lines.
+     * @return The joined text.
+     */
+    private static String lines(String... lines) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Without a width, the box fits the longest sentence. A blank line follows
+     * each Mad Lib, as in the other text formats.
+     */
+    @Test
+    void rendersFittedBox() {
+        String rendered = MadLibRenderer.box().render(newMadLib("The parrot sang.", "Arr."));
+        assertEquals(System.lineSeparator() + lines(
+                "+------------------+",
+                "| Mad Lib          |",
+                "+------------------+",
+                "| The parrot sang. |",
+                "|                  |",
+                "| Arr.             |",
+                "+------------------+",
+                ""), rendered);
+    }
+
+    /**
+     * Lines wrap at the last space that fits, and a word longer than a line is split.
+     */
+    @Test
+    void wrapsAtWordBoundaries() {
+        MadLibRenderer renderer = new MadLibRenderer(MadLibRenderer.Format.PLAIN, 10);
+        assertEquals(lines("The parrot", "sang a", "shanty.", "", "Yo-ho-ho-h", "o!", ""),
+                renderer.render(newMadLib("The parrot sang a shanty.", "Yo-ho-ho-ho!")));
+    }
+
+    /**
+     * JSON output holds the theme, seed and escaped sentences.
+     */
+    @Test
+    void rendersJson() {
+        MadLibRenderer renderer = new MadLibRenderer(MadLibRenderer.Format.JSON, 0);
+        assertEquals(lines("{\"theme\":\"pirate\",\"seed\":42,\"sentences\":[\"He said \\\"arr\\\".\",\"a\\\\b\\tc\"]}"),
+                renderer.render(newMadLib("He said \"arr\".", "a\\b\tc")));
+    }
+
+    /**
+     * HTML output escapes the sentences inside one paragraph each.
+     */
+    @Test
+    void rendersHtml() {
+        MadLibRenderer renderer = new MadLibRenderer(MadLibRenderer.Format.HTML, 0);
+        assertEquals(lines("<div class=\"madlib\">", "<h2>Mad Lib</h2>",
+                        "<p>Rum &amp; &lt;gold&gt; &quot;ahoy&quot; &#39;matey&#39;</p>", "</div>"),
+                renderer.render(newMadLib("Rum & <gold> \"ahoy\" 'matey'")));
+    }
+
+    /**
+     * The length estimate used to pre-size buffers covers the rendered box.
+     */
+    @Test
+    void estimatesBoxLength() {
+        MadLib madLib = new MadLibFactory(new MadLibSpec("all", 30, 0.25, false, 1)).generateMadLib(1);
+        for (int width : new int[]{0, 20, 72}) {
+            MadLibRenderer renderer = new MadLibRenderer(MadLibRenderer.Format.BOX, width);
+            assertTrue(renderer.render(madLib).length() <= renderer.estimateLength(madLib), "width " + width);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new MadLibRenderer(MadLibRenderer.Format.BOX, -1));
+    }
+}
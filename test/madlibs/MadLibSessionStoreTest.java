@@ -0,0 +1,178 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * MadLibSessionStoreTest class checks that specs survive being packed into a
+ * session and read back, at the limits of every packed field, and that
+ * overwritten or forged sessions are not returned.
+ */
+class MadLibSessionStoreTest {
+    private static final int MAX_SENTENCES = (1 << 10) - 1;
+
+    /**
+     * Stores a spec and reads it back.
+     * @param store The session store.
+     * @param spec The spec to store.
+     * @return The spec read back from the session.
+     */
+    private static MadLibSpec roundTrip(MadLibSessionStore store, MadLibSpec spec) {
+        MadLibSessionStore.Session session = store.get(store.put(spec, 1));
+        assertNotNull(session);
+        return session.spec();
+    }
+
+    /**
+     * A spec with a blank frequency comes back unchanged, with the no-repeat
+     * flag and the extreme seeds and sentence counts.
+     */
+    @Test
+    void roundTripsBlankFrequency() {
+        MadLibSessionStore store = new MadLibSessionStore(1, 60);
+        for (MadLibSpec spec : new MadLibSpec[]{
+                new MadLibSpec("pirate", 1, 0.25, false, 42),
+                new MadLibSpec("space", MAX_SENTENCES, 1.0, true, Long.MIN_VALUE),
+                new MadLibSpec("western", 7, 0.0, true, Long.MAX_VALUE),
+                new MadLibSpec("all", 5, 0.1, false, -1)}) {
+            assertEquals(spec, roundTrip(store, spec));
+        }
+    }
+
+    /**
+     * A -0.0 blank frequency is stored as 0, so it never sets the sign bit
+     * that marks a blank count.
+     */
+    @Test
+    void storesNegativeZeroFrequencyAsFrequency() {
+        MadLibSessionStore store = new MadLibSessionStore(1, 60);
+        MadLibSpec spec = roundTrip(store, new MadLibSpec("pirate", 3, -0.0, false, 1));
+        assertFalse(spec.hasBlankCount());
+        assertEquals(0.0, spec.blankFrequency());
+    }
+
+    /**
+     * A spec with a blank count comes back with the count, tagged by the sign
+     * bit, and with the blank frequency it ignores dropped to 0.
+     */
+    @Test
+    void roundTripsBlankCount() {
+        MadLibSessionStore store = new MadLibSessionStore(1, 60);
+        for (int blankCount : new int[]{0, 1, 12, Integer.MAX_VALUE}) {
+            MadLibSpec spec = new MadLibSpec("space", 9, 0, blankCount, true, blankCount);
+            assertEquals(spec, roundTrip(store, spec));
+        }
+        MadLibSpec spec = roundTrip(store, new MadLibSpec("space", 9, 0.5, 3, false, 0));
+        assertEquals(3, spec.blankCount());
+        assertEquals(0.0, spec.blankFrequency());
+    }
+
+    /**
+     * Every theme keeps its own theme index, well past the 4096 themes the
+     * params word used to hold, next to the largest sentence count.
+     */
+    @Test
+    void keepsEveryTheme() {
+        int themeCount = 10_000;
+        MadLibSessionStore store = new MadLibSessionStore(themeCount, 60);
+        String[] ids = new String[themeCount];
+        for (int i = 0; i < themeCount; i++) {
+            ids[i] = store.put(new MadLibSpec("theme" + i, MAX_SENTENCES, 0.5, true, i), 1);
+        }
+        for (int i = 0; i < themeCount; i++) {
+            MadLibSpec spec = store.get(ids[i]).spec();
+            assertEquals("theme" + i, spec.theme());
+            assertEquals(MAX_SENTENCES, spec.sentenceCount());
+            assertTrue(spec.noRepeatTemplates());
+            assertEquals(i, spec.seed());
+        }
+        assertEquals("theme7", roundTrip(store, new MadLibSpec("theme7", 1, 0.5, false, 0)).theme());
+    }
+
+    /**
+     * Sentence counts that do not fit their field are refused rather than
+     * spilling into the neighbouring fields.
+     */
+    @Test
+    void rejectsTooManySentences() {
+        MadLibSessionStore store = new MadLibSessionStore(1, 60);
+        assertThrows(IllegalArgumentException.class,
+                () -> store.put(new MadLibSpec("pirate", MAX_SENTENCES + 1, 0.5, false, 0), 1));
+    }
+
+    /**
+     * The longest time to live still fits the 32-bit expiry, and a longer one is refused.
+     */
+    @Test
+    void keepsSessionsForTheLongestTimeToLive() {
+        MadLibSessionStore store = new MadLibSessionStore(1, Integer.MAX_VALUE);
+        MadLibSpec spec = new MadLibSpec("western", 4, 0.25, true, 99);
+        assertEquals(spec, roundTrip(store, spec));
+        assertEquals(0, store.getStats().expired());
+        assertThrows(IllegalArgumentException.class, () -> new MadLibSessionStore(1, Integer.MAX_VALUE + 1L));
+    }
+
+    /**
+     * The catalog generation is kept next to the spec without disturbing it,
+     * in full, so generations that share their low bits are still told apart.
+     */
+    @Test
+    void keepsCatalogGeneration() {
+        MadLibSessionStore store = new MadLibSessionStore(1, 60);
+        MadLibSpec spec = new MadLibSpec("pirate", MAX_SENTENCES, 0.5, true, 7);
+        MadLibSessionStore.Session session = store.get(store.put(spec, 1234));
+        assertEquals(spec, session.spec());
+        assertTrue(session.isFrom(1234));
+        assertFalse(session.isFrom(1235));
+        assertFalse(session.isFrom(1233));
+        assertFalse(session.isFrom(1234 + 512));
+        assertFalse(session.isFrom(1234 + (1 << 16)));
+        for (int generation : new int[]{0, Integer.MAX_VALUE, Integer.MIN_VALUE, -1}) {
+            session = store.get(store.put(spec, generation));
+            assertEquals(spec, session.spec());
+            assertTrue(session.isFrom(generation));
+        }
+    }
+
+    /**
+     * Once a ring has wrapped past a session, its id misses instead of
+     * returning the session that took its slot.
+     */
+    @Test
+    void missesOverwrittenSessions() {
+        MadLibSessionStore store = new MadLibSessionStore(1, 60);
+        String first = store.put(new MadLibSpec("pirate", 1, 0.5, false, 1), 1);
+        long capacity = store.getStats().capacity();
+        String last = null;
+        for (long i = 0; i < capacity * 2; i++) {
+            last = store.put(new MadLibSpec("space", 2, 0.5, false, i), 1);
+        }
+        assertNull(store.get(first));
+        assertEquals(1, store.getStats().misses());
+        assertEquals(new MadLibSpec("space", 2, 0.5, false, capacity * 2 - 1), store.get(last).spec());
+    }
+
+    /**
+     * Ids naming slots that were never written, or with the wrong tag, miss.
+     */
+    @Test
+    void missesForgedIds() {
+        MadLibSessionStore store = new MadLibSessionStore(1, 60);
+        String id = store.put(new MadLibSpec("pirate", 1, 0.5, false, 1), 1);
+        String tag = id.substring(id.indexOf('.'));
+        assertNull(store.get(Long.toString(1L << 40, 36) + tag));
+        assertNull(store.get(id + "0"));
+        assertNull(store.get("not-an-id"));
+        assertNull(store.get(""));
+        assertEquals(4, store.getStats().misses());
+        assertNotNull(store.get(id));
+    }
+}
@@ -0,0 +1,137 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * TemplateFilesTest class checks that a template catalog written to the
+ * compiled format reads back as the same catalog, and that corrupt catalog
+ * files are refused.
+ */
+class TemplateFilesTest {
+    @TempDir
+    private Path directory;
+
+    /**
+     * Checks that two catalogs hold the same themes, with the same templates,
+     * slot count index and weights in the same order. Templates are compared
+     * by their source text.
+     * @param expected The catalog that was written.
+     * @param actual The catalog that was read back.
+     */
+    private static void assertSameCatalog(TemplateCatalog expected, TemplateCatalog actual) {
+        assertEquals(expected.getThemes(), actual.getThemes());
+        assertEquals(expected.getTemplateCount(), actual.getTemplateCount());
+        for (String theme : expected.getThemes()) {
+            TemplateCatalog.ThemeTemplates want = expected.getTheme(theme);
+            TemplateCatalog.ThemeTemplates got = actual.getTheme(theme);
+            assertEquals(want.size(), got.size(), theme);
+            assertEquals(want.isWeighted(), got.isWeighted(), theme);
+            assertEquals(want.getMaxSlotCount(), got.getMaxSlotCount(), theme);
+            for (int i = 0; i < want.size(); i++) {
+                assertEquals(want.get(i).toString(), got.get(i).toString(), theme);
+                assertEquals(want.getWeight(i), got.getWeight(i), theme);
+            }
+            for (int slotCount = 0; slotCount <= want.getMaxSlotCount() + 1; slotCount++) {
+                assertEquals(want.slotStart(slotCount), got.slotStart(slotCount), theme);
+                assertEquals(want.slotEnd(slotCount), got.slotEnd(slotCount), theme);
+            }
+        }
+    }
+
+    /**
+     * Writes a catalog to a compiled file and reads it back.
+     * @param catalog The catalog to write.
+     * @return The catalog read back.
+     */
+    private TemplateCatalog roundTrip(TemplateCatalog catalog) throws IOException {
+        Path file = directory.resolve("catalog" + TemplateFiles.BINARY_EXTENSION);
+        TemplateFiles.writeBinary(file, catalog);
+        return TemplateFiles.load(file);
+    }
+
+    /**
+     * The built-in catalog reads back unchanged.
+     */
+    @Test
+    void roundTripsBuiltInCatalog() throws IOException {
+        TemplateCatalog catalog = TemplateFiles.loadBuiltIn();
+        assertSameCatalog(catalog, roundTrip(catalog));
+    }
+
+    /**
+     * A catalog with weights, reweighted templates and repeated slots reads back unchanged.
+     */
+    @Test
+    void roundTripsWeightedCatalog() throws IOException {
+        Path source = Files.createDirectory(directory.resolve("templates"));
+        Files.write(source.resolve("all.txt"), List.of(
+                "// Shared templates",
+                "The $ # %. = 3",
+                "",
+                "^ ~ the $ and the $3. = 0",
+                "It was @."));
+        Files.write(source.resolve("pirate.txt"), List.of(
+                "The $ # %. = 0.5",
+                "& # near *. = 2"));
+        TemplateCatalog catalog = TemplateFiles.load(source);
+        TemplateCatalog.ThemeTemplates pirate = catalog.getTheme("pirate");
+        assertTrue(pirate.isWeighted());
+        assertEquals(4, pirate.size());
+
+        TemplateCatalog read = roundTrip(catalog);
+        assertSameCatalog(catalog, read);
+        for (int i = 0; i < pirate.size(); i++) {
+            if (pirate.get(i).toString().equals("The $ # %.")) {
+                assertEquals(0.5, read.getTheme("pirate").getWeight(i));
+            }
+        }
+    }
+
+    /**
+     * A catalog without weights is written in the unweighted format and reads back unweighted.
+     */
+    @Test
+    void roundTripsUnweightedCatalog() throws IOException {
+        Path source = Files.createDirectory(directory.resolve("templates"));
+        Files.write(source.resolve("all.txt"), List.of("The $ # %.", "It was @."));
+        Files.write(source.resolve("space.txt"), List.of("^ flew to *."));
+        TemplateCatalog catalog = TemplateFiles.load(source);
+        TemplateCatalog read = roundTrip(catalog);
+        assertSameCatalog(catalog, read);
+        assertFalse(read.getTheme("space").isWeighted());
+    }
+
+    /**
+     * Counts larger than the file are refused before anything is allocated for them.
+     */
+    @Test
+    void rejectsCorruptCounts() throws IOException {
+        Path file = directory.resolve("catalog" + TemplateFiles.BINARY_EXTENSION);
+        TemplateFiles.writeBinary(file, TemplateFiles.loadBuiltIn());
+        byte[] bytes = Files.readAllBytes(file);
+        int stringCount = ByteBuffer.wrap(bytes).getInt(2 * Integer.BYTES);
+        int firstTheme = (5 + stringCount + 1) * Integer.BYTES;
+        for (int position : new int[]{2 * Integer.BYTES, 3 * Integer.BYTES,
+                firstTheme + Integer.BYTES, firstTheme + 2 * Integer.BYTES}) {
+            for (int count : new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE - 1, -2}) {
+                byte[] corrupt = bytes.clone();
+                ByteBuffer.wrap(corrupt).putInt(position, count);
+                Files.write(file, corrupt);
+                assertThrows(IOException.class, () -> TemplateFiles.readBinary(file));
+            }
+        }
+    }
+}
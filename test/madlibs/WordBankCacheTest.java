@@ -0,0 +1,126 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * WordBankCacheTest class checks that the word bank cache loads each theme
+ * once, evicts the least recently used theme, and retries failed loads.
+ */
+class WordBankCacheTest {
+    /**
+     * Builds an empty word bank for a loader to return.
+     * @return The word bank.
+     */
+    private static WordBank newBank() {
+        List<List<String>> wordLists = new ArrayList<>();
+        for (int type = 0; type < WordBank.WORD_TYPES.size(); type++) {
+            wordLists.add(List.of());
+        }
+        return new WordBank(wordLists);
+    }
+
+    /**
+     * A cached theme is loaded once and served from the cache afterwards;
+     * missing themes are reported as null.
+     */
+    @Test
+    void loadsThemeOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        WordBankCache cache = new WordBankCache(4, theme -> {
+            loads.incrementAndGet();
+            return theme.equals("missing") ? null : newBank();
+        });
+        WordBank pirate = cache.get("pirate");
+        assertSame(pirate, cache.get("pirate"));
+        assertNull(cache.get("missing"));
+        assertEquals(2, loads.get());
+
+        WordBankCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.loads());
+        assertEquals(Map.of("pirate", pirate), cache.getLoaded());
+    }
+
+    /**
+     * Past its size bound, the cache evicts the theme used least recently.
+     */
+    @Test
+    void evictsLeastRecentlyUsed() {
+        WordBankCache cache = new WordBankCache(2, theme -> newBank());
+        WordBank space = cache.get("space");
+        cache.get("western");
+        cache.get("space");
+        cache.get("pirate");
+        assertEquals(List.of("space", "pirate"), new ArrayList<>(cache.getLoaded().keySet()));
+        assertSame(space, cache.get("space"));
+        assertEquals(1, cache.getStats().evictions());
+        assertEquals(2, cache.getStats().size());
+    }
+
+    /**
+     * Requests for a theme that is still loading wait for that load instead of starting another.
+     */
+    @Test
+    void coalescesConcurrentLoads() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        WordBank wordBank = newBank();
+        WordBankCache cache = new WordBankCache(4, theme -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return wordBank;
+        });
+        CompletableFuture<WordBank> first = CompletableFuture.supplyAsync(() -> cache.get("space"));
+        loading.await();
+        CompletableFuture<WordBank> second = CompletableFuture.supplyAsync(() -> cache.get("space"));
+        while (cache.getStats().hits() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        assertSame(wordBank, first.get());
+        assertSame(wordBank, second.get());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().coalesced());
+    }
+
+    /**
+     * A failed load is reported and not cached, so the next request loads the theme again.
+     */
+    @Test
+    void retriesFailedLoads() {
+        AtomicInteger loads = new AtomicInteger();
+        WordBankCache cache = new WordBankCache(4, theme -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IOException("disk on fire");
+            }
+            return newBank();
+        });
+        assertThrows(UncheckedIOException.class, () -> cache.get("space"));
+        assertEquals(Map.of(), cache.getLoaded());
+        cache.get("space");
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getLoaded().size());
+    }
+}
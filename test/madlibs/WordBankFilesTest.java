@@ -0,0 +1,148 @@
+// By: Landon Prince (5/4/2024)
+
+package madlibs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * WordBankFilesTest class checks that word bank files in the text format are
+ * parsed as documented, that the binary format maps back to the same words and
+ * weights, and that corrupt files of either format are refused.
+ */
+class WordBankFilesTest {
+    @TempDir
+    private Path directory;
+
+    /**
+     * Writes the lines of a text word bank file.
+     * @param lines The lines of the file.
+     * @return The written file.
+     */
+    private Path writeText(String... lines) throws IOException {
+        return Files.write(directory.resolve("pirate" + WordBankFiles.TEXT_EXTENSION), List.of(lines));
+    }
+
+    /**
+     * Checks that two word banks hold the same words and weights of every type.
+     * @param expected The word bank that was written.
+     * @param actual The word bank that was read back.
+     */
+    private static void assertSameBank(WordBank expected, WordBank actual) {
+        for (int type = WordBank.NOUN; type <= WordBank.PLACE; type++) {
+            assertEquals(expected.getWords(type), actual.getWords(type));
+            for (int i = 0; i < expected.getWords(type).size(); i++) {
+                assertEquals(expected.getWeight(type, i), actual.getWeight(type, i), 1e-6);
+            }
+        }
+    }
+
+    /**
+     * Sections, weights, comments and blank lines are read as documented,
+     * and left-out sections stay empty.
+     */
+    @Test
+    void parsesTextFile() throws IOException {
+        WordBank wordBank = WordBankFiles.loadText(writeText(
+                "# Pirate words",
+                "[nouns]",
+                "kraken = 3",
+                "",
+                "parrot",
+                "[VERBS]",
+                "plunder",
+                "[places]",
+                "Tortuga = 0.5"));
+        assertEquals(List.of("kraken", "parrot"), wordBank.getWords(WordBank.NOUN));
+        assertEquals(List.of("plunder"), wordBank.getWords(WordBank.VERB));
+        assertEquals(List.of(), wordBank.getWords(WordBank.ADJECTIVE));
+        assertEquals(List.of("Tortuga"), wordBank.getWords(WordBank.PLACE));
+        assertEquals(3.0, wordBank.getWeight(WordBank.NOUN, 0));
+        assertEquals(1.0, wordBank.getWeight(WordBank.NOUN, 1));
+        assertEquals(1.0, wordBank.getWeight(WordBank.VERB, 0));
+        assertEquals(0.5, wordBank.getWeight(WordBank.PLACE, 0));
+    }
+
+    /**
+     * Unknown sections, words before the first section and bad weights are refused.
+     */
+    @Test
+    void rejectsInvalidTextFile() throws IOException {
+        Path unknownSection = writeText("[pronouns]", "it");
+        assertThrows(IOException.class, () -> WordBankFiles.loadText(unknownSection));
+        Path noSection = writeText("kraken");
+        assertThrows(IOException.class, () -> WordBankFiles.loadText(noSection));
+        for (String weight : new String[]{"heavy", "-1", "NaN", "Infinity"}) {
+            Path badWeight = writeText("[nouns]", "kraken = " + weight);
+            assertThrows(IOException.class, () -> WordBankFiles.loadText(badWeight), weight);
+        }
+    }
+
+    /**
+     * A weighted bank written to the binary format maps back to the same words and weights.
+     */
+    @Test
+    void roundTripsBinaryFile() throws IOException {
+        WordBank wordBank = WordBankFiles.loadText(writeText(
+                "[nouns]", "kraken = 3", "parrot", "doubloon",
+                "[verbs]", "plunder",
+                "[adjectives]", "salty = 0.25",
+                "[names]", "Anne Bonny",
+                "[places]", "Tortuga", "Nassau"));
+        Path file = directory.resolve("pirate" + WordBankFiles.BINARY_EXTENSION);
+        WordBankFiles.writeBinary(file, wordBank);
+        WordBank mapped = WordBankFiles.load(file);
+        assertSameBank(wordBank, mapped);
+        assertSame(mapped.getWords(WordBank.NOUN).get(1), mapped.getWords(WordBank.NOUN).get(1));
+    }
+
+    /**
+     * An unweighted bank is written in version 1 and maps back with every weight 1.
+     */
+    @Test
+    void roundTripsUnweightedBinaryFile() throws IOException {
+        WordBank wordBank = WordBankFiles.loadText(writeText("[nouns]", "parrot", "[adverbs]", "boldly"));
+        Path file = directory.resolve("pirate" + WordBankFiles.BINARY_EXTENSION);
+        WordBankFiles.writeBinary(file, wordBank);
+        assertEquals(1, ByteBuffer.wrap(Files.readAllBytes(file)).getInt(Integer.BYTES));
+        assertSameBank(wordBank, WordBankFiles.load(file));
+    }
+
+    /**
+     * Corrupt word counts and word type ranges are refused before any word list is built.
+     */
+    @Test
+    void rejectsCorruptBinaryFile() throws IOException {
+        WordBank wordBank = WordBankFiles.loadText(writeText(
+                "[nouns]", "kraken = 3", "parrot", "[verbs]", "plunder", "[places]", "Tortuga"));
+        Path file = directory.resolve("pirate" + WordBankFiles.BINARY_EXTENSION);
+        WordBankFiles.writeBinary(file, wordBank);
+        byte[] bytes = Files.readAllBytes(file);
+        int typeTable = 3 * Integer.BYTES;
+        int typeCount = ByteBuffer.wrap(bytes).getInt(2 * Integer.BYTES);
+        for (int type = 0; type <= typeCount; type++) {
+            for (int value : new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE / Integer.BYTES, -1, 100}) {
+                byte[] corrupt = bytes.clone();
+                ByteBuffer.wrap(corrupt).putInt(typeTable + type * Integer.BYTES, value);
+                Files.write(file, corrupt);
+                assertThrows(IOException.class, () -> WordBankFiles.load(file), type + ": " + value);
+            }
+        }
+        byte[] swapped = bytes.clone();
+        ByteBuffer.wrap(swapped).putInt(typeTable + Integer.BYTES, 3).putInt(typeTable + 2 * Integer.BYTES, 2);
+        Files.write(file, swapped);
+        assertThrows(IOException.class, () -> WordBankFiles.load(file));
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> WordBankFiles.load(file));
+    }
+}